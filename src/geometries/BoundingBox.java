@@ -0,0 +1,188 @@
+package geometries;
+
+import primitives.*;
+
+/**
+ * BoundingBox class represents an axis aligned box in 3D Cartesian coordinate system,
+ * defined by its minimal and maximal corners
+ */
+public class BoundingBox {
+
+    /**
+     * The minimal corner of the box
+     */
+    final double minX, minY, minZ;
+
+    /**
+     * The maximal corner of the box
+     */
+    final double maxX, maxY, maxZ;
+
+    /**
+     * Constructor to initialize BoundingBox based object with its minimal and maximal corners
+     *
+     * @param minX minimal x value
+     * @param minY minimal y value
+     * @param minZ minimal z value
+     * @param maxX maximal x value
+     * @param maxY maximal y value
+     * @param maxZ maximal z value
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+            throw new IllegalArgumentException("The minimal corner must be below the maximal corner");
+
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructor to initialize the smallest BoundingBox that encloses all the given points
+     *
+     * @param points the points to enclose
+     */
+    public BoundingBox(Point... points) {
+        if (points.length == 0)
+            throw new IllegalArgumentException("A bounding box must enclose at least one point");
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point point : points) {
+            minX = Math.min(minX, point.getX());
+            minY = Math.min(minY, point.getY());
+            minZ = Math.min(minZ, point.getZ());
+            maxX = Math.max(maxX, point.getX());
+            maxY = Math.max(maxY, point.getY());
+            maxZ = Math.max(maxZ, point.getZ());
+        }
+
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{" +
+                "min=(" + minX + "," + minY + "," + minZ + ")" +
+                ", max=(" + maxX + "," + maxY + "," + maxZ + ")" +
+                '}';
+    }
+
+    /**
+     * Returns the smallest box that encloses both this box and the other box
+     *
+     * @param other the second box
+     * @return a new box containing both boxes
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(
+                Math.min(this.minX, other.minX), Math.min(this.minY, other.minY), Math.min(this.minZ, other.minZ),
+                Math.max(this.maxX, other.maxX), Math.max(this.maxY, other.maxY), Math.max(this.maxZ, other.maxZ));
+    }
+
+    /**
+     * Calculate the surface area of the box, used by the surface area heuristic
+     *
+     * @return the surface area of the box
+     */
+    public double surfaceArea() {
+        double dx = this.maxX - this.minX;
+        double dy = this.maxY - this.minY;
+        double dz = this.maxZ - this.minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Returns the center of the box along one of the axes
+     *
+     * @param axis 0 for x, 1 for y and 2 for z
+     * @return the center coordinate of the box along the axis
+     */
+    public double getCenter(int axis) {
+        return switch (axis) {
+            case 0 -> (this.minX + this.maxX) / 2;
+            case 1 -> (this.minY + this.maxY) / 2;
+            default -> (this.minZ + this.maxZ) / 2;
+        };
+    }
+
+    /**
+     * Checks whether the ray passes through the box, using the slab test:
+     * the ray is clipped between the two parallel planes of each axis,
+     * and it passes through the box if the three clipped ranges overlap in front of its head
+     *
+     * @param ray the ray to test
+     * @return true if the ray passes through the box, false otherwise
+     */
+    public boolean intersects(Ray ray) {
+        return intersects(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Checks whether the ray passes through the box before a maximal distance from its head
+     *
+     * @param ray         the ray to test
+     * @param maxDistance the maximal distance from the head of the ray
+     * @return true if the ray enters the box before the maximal distance, false otherwise
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+
+        double tNear = 0;
+        double tFar = maxDistance;
+
+        // x slab
+        double d = dir.getX();
+        double p = p0.getX();
+        if (d == 0) {
+            if (p < this.minX || p > this.maxX)
+                return false;
+        } else {
+            double t1 = (this.minX - p) / d;
+            double t2 = (this.maxX - p) / d;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+            if (tNear > tFar)
+                return false;
+        }
+
+        // y slab
+        d = dir.getY();
+        p = p0.getY();
+        if (d == 0) {
+            if (p < this.minY || p > this.maxY)
+                return false;
+        } else {
+            double t1 = (this.minY - p) / d;
+            double t2 = (this.maxY - p) / d;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+            if (tNear > tFar)
+                return false;
+        }
+
+        // z slab
+        d = dir.getZ();
+        p = p0.getZ();
+        if (d == 0) {
+            if (p < this.minZ || p > this.maxZ)
+                return false;
+        } else {
+            double t1 = (this.minZ - p) / d;
+            double t2 = (this.maxZ - p) / d;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+        }
+
+        return tNear <= tFar;
+    }
+}
@@ -0,0 +1,348 @@
+package geometries;
+
+import primitives.*;
+import primitives.Vector;
+
+import java.util.*;
+
+/**
+ * BvhNode class represents a node in a bounding volume hierarchy (BVH) -
+ * a binary tree of bounding boxes over bounded intersectable objects.
+ * The tree is built top-down by the surface area heuristic (SAH):
+ * every node is split where the expected cost of tracing a ray through its two children is the lowest
+ */
+class BvhNode extends Intersectable {
+
+    /**
+     * The maximal amount of objects that is kept in a leaf without trying to split it
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+
+    /**
+     * The number of bins the centroids are sorted into along each axis when looking for the best split
+     */
+    private static final int BINS = 12;
+
+    /**
+     * The cost of testing a ray against the boxes of a node, relative to testing it against an object
+     */
+    private static final double TRAVERSAL_COST = 0.125;
+
+    /**
+     * The objects of a leaf node, null for an inner node
+     */
+    private final Intersectable[] objects;
+
+    /**
+     * The children of an inner node, null for a leaf node
+     */
+    private final BvhNode left, right;
+
+    /**
+     * The axis an inner node is split along (0 for x, 1 for y and 2 for z) -
+     * the objects of the left child have the lower centroids along it
+     */
+    private final int axis;
+
+    /**
+     * The amount of objects in the sub-tree of the node
+     */
+    final int size;
+
+    /**
+     * Constructor of a leaf node
+     *
+     * @param box     the box that encloses the objects
+     * @param objects the objects of the leaf
+     */
+    private BvhNode(BoundingBox box, Intersectable[] objects) {
+        this.box = box;
+        this.objects = objects;
+        this.left = null;
+        this.right = null;
+        this.axis = -1;
+        this.size = objects.length;
+    }
+
+    /**
+     * Constructor of an inner node
+     *
+     * @param box   the box that encloses both children
+     * @param axis  the axis the node is split along
+     * @param left  the first child
+     * @param right the second child
+     */
+    private BvhNode(BoundingBox box, int axis, BvhNode left, BvhNode right) {
+        this.box = box;
+        this.objects = null;
+        this.left = left;
+        this.right = right;
+        this.axis = axis;
+        this.size = left.size + right.size;
+    }
+
+    /**
+     * Builds a bounding volume hierarchy over bounded intersectable objects
+     *
+     * @param objects the objects, each one must have a bounding box
+     * @return the root of the hierarchy, or null if there are no objects
+     */
+    static BvhNode build(List<Intersectable> objects) {
+        if (objects.isEmpty())
+            return null;
+
+        Intersectable[] items = objects.toArray(new Intersectable[0]);
+        BoundingBox[] boxes = new BoundingBox[items.length];
+        for (int i = 0; i < items.length; i++)
+            boxes[i] = items[i].getBoundingBox();
+
+        return build(items, boxes, 0, items.length);
+    }
+
+    /**
+     * Builds the sub-tree over the objects in the range [start, end) of the arrays.
+     * The range is reordered in place so that every child gets a continuous range
+     *
+     * @param items the objects
+     * @param boxes the bounding boxes of the objects, in the same order
+     * @param start the first index of the range (included)
+     * @param end   the last index of the range (excluded)
+     * @return the root of the sub-tree
+     */
+    private static BvhNode build(Intersectable[] items, BoundingBox[] boxes, int start, int end) {
+        int count = end - start;
+
+        BoundingBox box = boxes[start];
+        for (int i = start + 1; i < end; i++)
+            box = box.union(boxes[i]);
+
+        if (count <= MAX_LEAF_SIZE)
+            return new BvhNode(box, Arrays.copyOfRange(items, start, end));
+
+        // the range of the centroids along each axis - the split planes are looked for inside it
+        double[] minCentroid = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] maxCentroid = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = start; i < end; i++)
+            for (int axis = 0; axis < 3; axis++) {
+                double c = boxes[i].getCenter(axis);
+                minCentroid[axis] = Math.min(minCentroid[axis], c);
+                maxCentroid[axis] = Math.max(maxCentroid[axis], c);
+            }
+
+        // SAH: cost(split) = traversal + (area(L) * count(L) + area(R) * count(R)) / area(node)
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1, bestBin = -1;
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = maxCentroid[axis] - minCentroid[axis];
+            if (extent <= 0)
+                continue; // all the centroids are on the same plane - nothing to split along this axis
+
+            int[] binCounts = new int[BINS];
+            BoundingBox[] binBoxes = new BoundingBox[BINS];
+            for (int i = start; i < end; i++) {
+                int bin = binOf(boxes[i].getCenter(axis), minCentroid[axis], extent);
+                binCounts[bin]++;
+                binBoxes[bin] = binBoxes[bin] == null ? boxes[i] : binBoxes[bin].union(boxes[i]);
+            }
+
+            // sweep from the right to get the area and count of every right side
+            double[] rightAreas = new double[BINS];
+            int[] rightCounts = new int[BINS];
+            BoundingBox rightBox = null;
+            int rightCount = 0;
+            for (int bin = BINS - 1; bin > 0; bin--) {
+                if (binBoxes[bin] != null)
+                    rightBox = rightBox == null ? binBoxes[bin] : rightBox.union(binBoxes[bin]);
+                rightCount += binCounts[bin];
+                rightAreas[bin] = rightBox == null ? 0 : rightBox.surfaceArea();
+                rightCounts[bin] = rightCount;
+            }
+
+            // sweep from the left and evaluate the split before every bin
+            BoundingBox leftBox = null;
+            int leftCount = 0;
+            for (int bin = 1; bin < BINS; bin++) {
+                if (binBoxes[bin - 1] != null)
+                    leftBox = leftBox == null ? binBoxes[bin - 1] : leftBox.union(binBoxes[bin - 1]);
+                leftCount += binCounts[bin - 1];
+                if (leftCount == 0 || rightCounts[bin] == 0)
+                    continue;
+
+                double cost = leftBox.surfaceArea() * leftCount + rightAreas[bin] * rightCounts[bin];
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = bin;
+                }
+            }
+        }
+
+        // all the centroids are in the same point - the objects can't be separated
+        if (bestAxis == -1)
+            return new BvhNode(box, Arrays.copyOfRange(items, start, end));
+
+        double area = box.surfaceArea();
+        double splitCost = area > 0 ? TRAVERSAL_COST + bestCost / area : TRAVERSAL_COST;
+        if (count <= 2 * MAX_LEAF_SIZE && splitCost >= count)
+            return new BvhNode(box, Arrays.copyOfRange(items, start, end));
+
+        // partition the range - objects in the bins before the split go to the left
+        double extent = maxCentroid[bestAxis] - minCentroid[bestAxis];
+        int mid = start;
+        for (int i = start; i < end; i++)
+            if (binOf(boxes[i].getCenter(bestAxis), minCentroid[bestAxis], extent) < bestBin) {
+                swap(items, i, mid);
+                swap(boxes, i, mid);
+                mid++;
+            }
+
+        return new BvhNode(box, bestAxis, build(items, boxes, start, mid), build(items, boxes, mid, end));
+    }
+
+    /**
+     * Finds the bin of a centroid coordinate
+     *
+     * @param centroid the coordinate of the centroid
+     * @param min      the minimal centroid coordinate
+     * @param extent   the range of the centroid coordinates
+     * @return the bin index
+     */
+    private static int binOf(double centroid, double min, double extent) {
+        int bin = (int) (BINS * (centroid - min) / extent);
+        return Math.min(bin, BINS - 1);
+    }
+
+    /**
+     * Swaps two cells of an array
+     *
+     * @param array the array
+     * @param i     the first index
+     * @param j     the second index
+     */
+    private static <T> void swap(T[] array, int i, int j) {
+        T temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * Given a ray, find all the points where the ray intersects the objects under the node.
+     * Sub-trees whose box is missed by the ray are skipped by {@link #findGeoIntersections(Ray)}
+     *
+     * @param ray The ray to test for intersections.
+     * @return A list of GeoPoints.
+     */
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        List<GeoPoint> intersections = null;
+        if (this.objects != null) {
+            for (Intersectable object : this.objects) {
+                List<GeoPoint> objectIntersections = object.findGeoIntersections(ray);
+                if (objectIntersections != null) {
+                    if (intersections == null)
+                        intersections = new LinkedList<>();
+                    intersections.addAll(objectIntersections);
+                }
+            }
+            return intersections;
+        }
+
+        List<GeoPoint> leftIntersections = this.left.findGeoIntersections(ray);
+        List<GeoPoint> rightIntersections = this.right.findGeoIntersections(ray);
+        if (leftIntersections == null)
+            return rightIntersections;
+        if (rightIntersections == null)
+            return leftIntersections;
+
+        intersections = new LinkedList<>(leftIntersections);
+        intersections.addAll(rightIntersections);
+        return intersections;
+    }
+
+    /**
+     * Calculates the transparency along a ray through the objects under the node,
+     * stopping at the first opaque object
+     *
+     * @param ray         the ray from the point towards the light source
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return the transparency along the ray, Double3.ZERO if an opaque geometry blocks it
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        Double3 ktr = Double3.ONE;
+        if (this.objects != null) {
+            for (Intersectable object : this.objects) {
+                ktr = object.findTransparency(ray, maxDistance).product(ktr);
+                if (ktr.equals(Double3.ZERO))
+                    return Double3.ZERO;
+            }
+            return ktr;
+        }
+
+        ktr = this.left.findTransparency(ray, maxDistance);
+        if (ktr.equals(Double3.ZERO))
+            return Double3.ZERO;
+        return this.right.findTransparency(ray, maxDistance).product(ktr);
+    }
+
+    /**
+     * Given a ray, find the intersection point closest to its head among the objects under the node.
+     * The child on the side the ray comes from is searched first,
+     * so its closest hit usually rejects the whole box of the other child
+     *
+     * @param ray The ray to test for intersections.
+     * @param hit The closest hit so far, updated if a closer intersection point is found.
+     * @return true if the hit was updated.
+     */
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, Hit hit) {
+        if (this.objects != null) {
+            boolean found = false;
+            for (Intersectable object : this.objects)
+                found |= object.findClosestHit(ray, hit);
+            return found;
+        }
+
+        Vector dir = ray.getDir();
+        double d = this.axis == 0 ? dir.getX() : this.axis == 1 ? dir.getY() : dir.getZ();
+        BvhNode first = d < 0 ? this.right : this.left;
+        BvhNode second = d < 0 ? this.left : this.right;
+
+        boolean found = first.findClosestHit(ray, hit);
+        return second.findClosestHit(ray, hit) || found;
+    }
+
+    /**
+     * Collects the parts of the sub-tree that a frustum of rays may hit. A node whose objects all may be hit
+     * is collected as a whole instead of its parts
+     *
+     * @param frustum the frustum of the rays
+     * @param visible the list to add the collected nodes and objects to
+     * @return the amount of collected objects
+     */
+    int cull(Frustum frustum, List<Intersectable> visible) {
+        if (frustum.excludes(this.box))
+            return 0;
+        if (frustum.contains(this.box)) {
+            visible.add(this);
+            return this.size;
+        }
+
+        int mark = visible.size();
+        int count = 0;
+        if (this.objects != null) {
+            for (Intersectable object : this.objects)
+                if (!frustum.excludes(object.getBoundingBox())) {
+                    visible.add(object);
+                    count++;
+                }
+        } else
+            count = this.left.cull(frustum, visible) + this.right.cull(frustum, visible);
+
+        if (count == this.size) { // nothing was culled - the node is faster than its parts
+            visible.subList(mark, visible.size()).clear();
+            visible.add(this);
+        }
+        return count;
+    }
+}
@@ -2,7 +2,6 @@ package geometries;
 
 import primitives.*;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import static primitives.Util.*;
@@ -16,6 +15,21 @@ public class Cylinder extends Tube {
 
     private final double height;
 
+    /**
+     * The center of the bottom base (the head of the axis ray), kept as raw coordinates
+     */
+    private final double bx, by, bz;
+
+    /**
+     * The center of the top base (the head of the axis ray moved by the height)
+     */
+    private final double tx, ty, tz;
+
+    /**
+     * The direction of the axis, which is the normal of both bases
+     */
+    private final double ax, ay, az;
+
     /**
      * Constructor to initialize Cylinder based object on Tube and height
      *
@@ -29,6 +43,21 @@ public class Cylinder extends Tube {
             throw new IllegalArgumentException("The height must to be bigger than 0");
 
         this.height = height;
+
+        // the axis and the centers of the bases are computed once, so the per-ray solution runs on doubles only
+        Point p1 = axisRay.getP0();
+        Vector va = this.axisRay.getDir();
+        this.ax = va.getX();
+        this.ay = va.getY();
+        this.az = va.getZ();
+        this.bx = p1.getX();
+        this.by = p1.getY();
+        this.bz = p1.getZ();
+        this.tx = this.bx + this.ax * height;
+        this.ty = this.by + this.ay * height;
+        this.tz = this.bz + this.az * height;
+
+        this.box = calcBoundingBox();
     }
 
     public double getHeight() {
@@ -77,75 +106,150 @@ public class Cylinder extends Tube {
     }
 
     /**
-     * Given a ray, find all the points where the ray intersects the sphere
+     * Calculates the box that encloses the two bases of the cylinder.
+     * A base of radius r perpendicular to the axis v spreads r*sqrt(1 - v_i^2) along the i axis
+     *
+     * @return the bounding box of the cylinder
+     */
+    private BoundingBox calcBoundingBox() {
+        double ex = this.radius * Math.sqrt(Math.max(0, 1 - this.ax * this.ax));
+        double ey = this.radius * Math.sqrt(Math.max(0, 1 - this.ay * this.ay));
+        double ez = this.radius * Math.sqrt(Math.max(0, 1 - this.az * this.az));
+
+        return new BoundingBox(
+                Math.min(this.bx, this.tx) - ex, Math.min(this.by, this.ty) - ey, Math.min(this.bz, this.tz) - ez,
+                Math.max(this.bx, this.tx) + ex, Math.max(this.by, this.ty) + ey, Math.max(this.bz, this.tz) + ez);
+    }
+
+    /**
+     * Given a ray, find all the points where the ray intersects the cylinder
      *
      * @param ray The ray to test for intersections.
      * @return A list of GeoPoints.
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        double t1 = findIntersectionDistance(ray, 0);
+        if (t1 <= 0)
+            return null;
 
-        List<GeoPoint> intersections = null;
-        List<GeoPoint> intersectionsHelper;
+        // a line crosses the surface of the cylinder at most twice
+        double t2 = findIntersectionDistance(ray, t1);
+        if (t2 <= 0)
+            return List.of(new GeoPoint(this, ray.getPoint(t1)));
 
-        Vector va = this.axisRay.getDir();
-        Point p1 = this.axisRay.getP0();
-        Point p2 = p1.add(va.scale(this.height));
+        return List.of(new GeoPoint(this, ray.getPoint(t1)), new GeoPoint(this, ray.getPoint(t2)));
+    }
 
-        //1) get the intersections with tube that includes the cylinder
-        //2) get the intersections with bottom plane
-        //3) get the intersections with top plane
+    /**
+     * Given a ray, record the intersection point with the cylinder if it is closer than the closest hit so far
+     *
+     * @param ray The ray to test for intersections.
+     * @param hit The closest hit so far, updated if the intersection point is closer.
+     * @return true if the hit was updated.
+     */
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, Hit hit) {
+        double t = findIntersectionDistance(ray, 0);
+        return t > 0 && hit.update(this, t);
+    }
 
-        intersectionsHelper = super.findGeoIntersectionsHelper(ray); //get intersections for tube
-        if (intersectionsHelper != null) {
-            intersections = new LinkedList<>();
+    /**
+     * Checks whether the cylinder is hit by a ray before a maximal distance from its head
+     *
+     * @param ray         the ray from the point towards the light source
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return true if the ray hits the cylinder before the maximal distance
+     */
+    @Override
+    protected boolean isHitBefore(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray, 0);
+        return t > 0 && t < maxDistance;
+    }
 
-            //Add all intersections of tube that are in the cylinder's bounders
-            for (GeoPoint geoPoint : intersectionsHelper)
-                if (va.dotProduct(geoPoint.point.subtract(p1)) > 0 && va.dotProduct(geoPoint.point.subtract(p2)) < 0)
-                    intersections.add(new GeoPoint(this, geoPoint.point));
+    /**
+     * Calculates the closest intersection of the ray with the cylinder beyond a minimal distance.
+     * The body is solved as the quadratic equation of the tube, keeping the roots between the two bases,
+     * and every base is solved as a plane, keeping the point if it is inside the base's circle
+     *
+     * @param ray         The ray to test for intersections.
+     * @param minDistance the minimal distance (ray parameter) of the point, excluded
+     * @return the ray parameter of the closest intersection point beyond the minimal distance, or 0 if there is none
+     */
+    private double findIntersectionDistance(Ray ray, double minDistance) {
+        Point p0 = ray.getP0();
+        Vector v = ray.getDir();
+        double dx = v.getX(), dy = v.getY(), dz = v.getZ();
+
+        // dp = p0 - p1 where p1 is the center of the bottom base
+        double px = p0.getX() - this.bx, py = p0.getY() - this.by, pz = p0.getZ() - this.bz;
+
+        double vva = dx * this.ax + dy * this.ay + dz * this.az; // v * va
+        double dpva = px * this.ax + py * this.ay + pz * this.az; // dp * va
+
+        double closest = Double.POSITIVE_INFINITY;
+
+        // 1) the body: the components of v and dp orthogonal to the axis give at^2 + bt + c = 0
+        double ux = dx - vva * this.ax, uy = dy - vva * this.ay, uz = dz - vva * this.az;
+        double wx = px - dpva * this.ax, wy = py - dpva * this.ay, wz = pz - dpva * this.az;
+        double a = ux * ux + uy * uy + uz * uz;
+        if (!isZero(a)) { // otherwise the ray is parallel to the axis
+            double b = 2 * (ux * wx + uy * wy + uz * wz);
+            double c = alignZero(wx * wx + wy * wy + wz * wz - this.radius * this.radius);
+            double squaredDelta = alignZero(b * b - 4 * a * c);
+            if (squaredDelta > 0) {
+                double delta = Math.sqrt(squaredDelta);
+                double t1 = alignZero((-b + delta) / (2 * a));
+                double t2 = alignZero((-b - delta) / (2 * a));
+                if (t1 > minDistance && t1 < closest && isBetweenBases(dpva + t1 * vva))
+                    closest = t1;
+                if (t2 > minDistance && t2 < closest && isBetweenBases(dpva + t2 * vva))
+                    closest = t2;
+            }
         }
 
-        intersectionsHelper = findIntersectionsWithBase(ray, new Plane(p1,va)); //intersections with bottom's plane
-        if(intersectionsHelper != null){
-            if(intersections == null)
-                intersections = new LinkedList<>();
-            intersections.addAll(intersectionsHelper);
-        }
+        // 2) the bases: planes through the centers of the bases with the axis as their normal
+        if (!isZero(vva)) { // otherwise the ray is parallel to the bases
+            // bottom base: va * (p1 - p0) = -dp * va
+            double nqp = -dpva;
+            if (!isZero(nqp)) {
+                double t = alignZero(nqp / vva);
+                if (t > minDistance && t < closest && isInsideBase(px + t * dx, py + t * dy, pz + t * dz))
+                    closest = t;
+            }
 
-        intersectionsHelper = findIntersectionsWithBase(ray, new Plane(p2, va)); //intersections with top's plane
-        if(intersectionsHelper != null){
-            if(intersections == null)
-                intersections = new LinkedList<>();
-            intersections.addAll(intersectionsHelper);
+            // top base: va * (p2 - p0) = height - dp * va
+            nqp = this.height - dpva;
+            if (!isZero(nqp)) {
+                double t = alignZero(nqp / vva);
+                if (t > minDistance && t < closest
+                        && isInsideBase(px + t * dx - this.tx + this.bx, py + t * dy - this.ty + this.by, pz + t * dz - this.tz + this.bz))
+                    closest = t;
+            }
         }
-        if(intersections == null || intersections.size() == 0)
-            return null;
 
-        return intersections;
+        return closest == Double.POSITIVE_INFINITY ? 0 : closest;
     }
 
-    private List<GeoPoint> findIntersectionsWithBase(Ray ray, Plane basePlane) {
-        List<GeoPoint> intersections = null;
-
-        List<GeoPoint> intersections1 = basePlane.findGeoIntersectionsHelper(ray); //intersections with bottom's plane
-        if (intersections1 != null) {
-            intersections = new LinkedList<>();
-
-            //Add all intersections of plane that are in the base's bounders
-            for (GeoPoint geoPoint : intersections1) {
-                if (geoPoint.point.equals(basePlane.getQ0())) //to avoid vector ZERO
-                    intersections.add(new GeoPoint(this, geoPoint.point));
-
-                //Formula that checks that point is inside the base
-                else if ((geoPoint.point.subtract(basePlane.getQ0()).dotProduct(geoPoint.point.subtract(basePlane.getQ0())) < this.radius * this.radius))
-                    intersections.add(new GeoPoint(this, geoPoint.point));
-
-            }
-        }
-        if(intersections == null || intersections.size() == 0)
-            return null;
+    /**
+     * Checks whether a point of the tube is between the two bases of the cylinder
+     *
+     * @param s the projection of the point on the axis, relative to the center of the bottom base
+     * @return true if the point is strictly between the bases
+     */
+    private boolean isBetweenBases(double s) {
+        return s > 0 && s < this.height;
+    }
 
-        return intersections;
+    /**
+     * Checks whether a point of a base's plane is inside the base
+     *
+     * @param x the x coordinate of the point relative to the center of the base
+     * @param y the y coordinate of the point relative to the center of the base
+     * @param z the z coordinate of the point relative to the center of the base
+     * @return true if the point is strictly inside the circle of the base
+     */
+    private boolean isInsideBase(double x, double y, double z) {
+        return x * x + y * y + z * z < this.radius * this.radius;
     }
-}
\ No newline at end of file
+}
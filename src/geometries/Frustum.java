@@ -0,0 +1,92 @@
+package geometries;
+
+import primitives.*;
+import primitives.Vector;
+
+/**
+ * Frustum class represents an infinite pyramid of rays - all the rays from an apex through a convex quadrilateral,
+ * such as the rays of the camera through a tile of the image. It is bounded by four side planes through the apex,
+ * and by the plane through the apex that faces its axis - which culls the boxes behind the apex, that a narrow
+ * pyramid's side planes alone don't separate. It is used to cull the geometries that none of its rays can hit
+ */
+public class Frustum {
+    /**
+     * The largest distance of a point outside a plane of the frustum that is still considered inside,
+     * so the rays on the sides of the frustum don't miss geometries by rounding errors
+     */
+    private static final double TOLERANCE = 1e-7;
+
+    /**
+     * The apex of the frustum
+     */
+    private final Point apex;
+
+    /**
+     * The normals of the side planes and of the plane behind the apex, normalized and pointing into the frustum
+     */
+    private final Vector[] normals = new Vector[5];
+
+    /**
+     * Constructor to initialize the frustum by its apex and the directions of its edges
+     *
+     * @param apex    the apex of the frustum
+     * @param corners the directions of the four edges of the frustum, in order around it
+     * @throws IllegalArgumentException if there aren't four directions, or two adjacent ones are parallel
+     */
+    public Frustum(Point apex, Vector... corners) {
+        if (corners.length != 4)
+            throw new IllegalArgumentException("A frustum has four edges");
+
+        this.apex = apex;
+        Vector center = corners[0].add(corners[2]);
+        for (int k = 0; k < 4; k++) {
+            Vector normal = corners[k].crossProduct(corners[(k + 1) % 4]).normalize();
+            this.normals[k] = normal.dotProduct(center) < 0 ? normal.scale(-1) : normal;
+        }
+        this.normals[4] = center.normalize();
+    }
+
+    /**
+     * Checks whether a box is entirely outside the frustum, so no ray of the frustum can hit what it bounds.
+     * The check is conservative - a box outside the frustum near its edges may be reported as not outside
+     *
+     * @param box the box
+     * @return true if the box is outside the frustum
+     */
+    public boolean excludes(BoundingBox box) {
+        for (Vector normal : this.normals)
+            // the corner of the box that is the farthest into the side of the plane
+            if (distance(normal, normal.getX() >= 0 ? box.maxX : box.minX, normal.getY() >= 0 ? box.maxY : box.minY,
+                    normal.getZ() >= 0 ? box.maxZ : box.minZ) < -TOLERANCE)
+                return true;
+        return false;
+    }
+
+    /**
+     * Checks whether a box is entirely inside the frustum
+     *
+     * @param box the box
+     * @return true if the box is inside the frustum
+     */
+    public boolean contains(BoundingBox box) {
+        for (Vector normal : this.normals)
+            // the corner of the box that is the farthest out of the side of the plane
+            if (distance(normal, normal.getX() >= 0 ? box.minX : box.maxX, normal.getY() >= 0 ? box.minY : box.maxY,
+                    normal.getZ() >= 0 ? box.minZ : box.maxZ) < 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Calculates the signed distance of a point from a side plane of the frustum
+     *
+     * @param normal the normal of the plane
+     * @param x      the x coordinate of the point
+     * @param y      the y coordinate of the point
+     * @param z      the z coordinate of the point
+     * @return the distance, positive inside the frustum
+     */
+    private double distance(Vector normal, double x, double y, double z) {
+        return normal.getX() * (x - apex.getX()) + normal.getY() * (y - apex.getY()) + normal.getZ() * (z - apex.getZ());
+    }
+}
@@ -16,16 +16,124 @@ public class Geometries extends Intersectable {
      */
     private List<Intersectable> geometries;
 
+    /**
+     * The root of the bounding volume hierarchy over the bounded geometries,
+     * null while the hierarchy is not built
+     */
+    private BvhNode bvh = null;
+
+    /**
+     * The geometries without finite bounds (such as planes and tubes),
+     * which are tested by every ray when the bounding volume hierarchy is built
+     */
+    private List<Intersectable> unbounded = null;
+
+    /**
+     * Whether all the geometries have finite bounds, so the union of their boxes bounds the whole collection
+     */
+    private boolean bounded = true;
+
+    /**
+     * The collections this collection was added to, whose bounding boxes enclose its box
+     * and have to grow with it
+     */
+    private final List<Geometries> parents = new ArrayList<>();
+
     public Geometries() {
         this.geometries = new LinkedList<>();
     }
 
     public Geometries(Intersectable... geometries) {
         this.geometries = List.of(geometries);
+        updateBoundingBox(geometries);
+        adopt(geometries);
     }
 
+    /**
+     * Constructor of a temporary collection of geometries of another collection, such as the geometries of a frustum,
+     * which isn't registered as a parent of the collections in it
+     *
+     * @param geometries the geometries
+     */
+    private Geometries(List<Intersectable> geometries) {
+        this.geometries = geometries;
+        updateBoundingBox(geometries.toArray(new Intersectable[0]));
+    }
+
+    /**
+     * Adds geometries to the collection. The bounding boxes of the collections that contain this collection grow
+     * with it, and the bounding volume hierarchies of this collection and of the collections that contain it
+     * are dropped - buildBvh has to be called again after the scene changes
+     *
+     * @param geometries the new geometries
+     */
     public void add(Intersectable... geometries) {
         this.geometries.addAll(List.of(geometries));
+        updateBoundingBox(geometries);
+        adopt(geometries);
+        // the hierarchy doesn't know the new geometries, it has to be built again
+        this.bvh = null;
+        this.unbounded = null;
+        for (var parent : this.parents)
+            parent.childChanged();
+    }
+
+    /**
+     * Registers the collection as the parent of the collections among its new geometries
+     *
+     * @param geometries the new geometries
+     */
+    private void adopt(Intersectable... geometries) {
+        for (var geometry : geometries)
+            if (geometry instanceof Geometries)
+                ((Geometries) geometry).parents.add(this);
+    }
+
+    /**
+     * Recalculates the bounding box of the collection after a collection in it changed, drops the hierarchy
+     * that holds the old box of the child, and passes the change up to the collections that contain this one
+     */
+    private void childChanged() {
+        this.bounded = true;
+        this.box = null;
+        updateBoundingBox(this.geometries.toArray(new Intersectable[0]));
+        this.bvh = null;
+        this.unbounded = null;
+        for (var parent : this.parents)
+            parent.childChanged();
+    }
+
+    /**
+     * Returns the geometries of the collection
+     *
+     * @return an unmodifiable view of the geometries
+     */
+    public List<Intersectable> getGeometries() {
+        return Collections.unmodifiableList(this.geometries);
+    }
+
+    /**
+     * Builds a bounding volume hierarchy over the geometries, so a ray is tested only against the geometries
+     * whose boxes it passes through - about O(log n) instead of O(n) per ray.
+     * It should be called after the scene is assembled - adding geometries to the collection, or to a collection
+     * in it, drops the hierarchy, and it has to be called again.
+     * Geometries without finite bounds are kept aside and tested by every ray
+     *
+     * @return The Geometries object itself.
+     */
+    public Geometries buildBvh() {
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> unbounded = new ArrayList<>();
+        for (var geometry : this.geometries) {
+            if (geometry.getBoundingBox() == null)
+                unbounded.add(geometry);
+            else
+                bounded.add(geometry);
+        }
+
+        this.bvh = BvhNode.build(bounded);
+        this.unbounded = unbounded;
+        return this;
     }
 
     /**
@@ -38,6 +146,27 @@ public class Geometries extends Intersectable {
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
         List<GeoPoint> intersections = null;
 
+        if (this.unbounded != null) {
+            if (this.bvh != null) {
+                List<GeoPoint> bvhIntersections = this.bvh.findGeoIntersections(ray);
+                if (bvhIntersections != null)
+                    intersections = new LinkedList<>(bvhIntersections);
+            }
+
+            for (var geometry : this.unbounded) {
+                List<GeoPoint> geometryIntersections = geometry.findGeoIntersections(ray);
+
+                if (geometryIntersections != null) {
+                    if (intersections == null)
+                        intersections = new LinkedList<>();
+
+                    intersections.addAll(geometryIntersections);
+                }
+            }
+
+            return intersections;
+        }
+
         for (var geometry : this.geometries) {
             List<GeoPoint> geometryIntersections = geometry.findGeoIntersections(ray);
 
@@ -51,4 +180,127 @@ public class Geometries extends Intersectable {
 
         return intersections;
     }
+
+    /**
+     * Given a ray, find the intersection point closest to its head.
+     * Every geometry is tested against the closest hit found so far, so it rejects the points beyond it
+     *
+     * @param ray The ray to test for intersections.
+     * @param hit The closest hit so far, updated if a closer intersection point is found.
+     * @return true if the hit was updated.
+     */
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, Hit hit) {
+        boolean found = false;
+
+        if (this.unbounded != null) {
+            if (this.bvh != null)
+                found = this.bvh.findClosestHit(ray, hit);
+
+            for (var geometry : this.unbounded)
+                found |= geometry.findClosestHit(ray, hit);
+
+            return found;
+        }
+
+        for (var geometry : this.geometries)
+            found |= geometry.findClosestHit(ray, hit);
+
+        return found;
+    }
+
+    /**
+     * Calculates the transparency along a ray through the geometries, stopping at the first opaque geometry
+     *
+     * @param ray         the ray from the point towards the light source
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return the transparency along the ray, Double3.ZERO if an opaque geometry blocks it
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        Double3 ktr = Double3.ONE;
+
+        if (this.unbounded != null) {
+            if (this.bvh != null)
+                ktr = this.bvh.findTransparency(ray, maxDistance);
+
+            for (var geometry : this.unbounded) {
+                if (ktr.equals(Double3.ZERO))
+                    return Double3.ZERO;
+                ktr = geometry.findTransparency(ray, maxDistance).product(ktr);
+            }
+
+            return ktr;
+        }
+
+        for (var geometry : this.geometries) {
+            ktr = geometry.findTransparency(ray, maxDistance).product(ktr);
+            if (ktr.equals(Double3.ZERO))
+                return Double3.ZERO;
+        }
+
+        return ktr;
+    }
+
+    /**
+     * Finds the geometries a frustum of rays may hit - the geometries whose boxes aren't outside it, and the geometries
+     * without finite bounds. With a bounding volume hierarchy, a sub-tree whose geometries all may be hit is kept
+     * as a whole, so the rays of the frustum still traverse it in O(log n)
+     *
+     * @param frustum the frustum of the rays
+     * @return the geometries the rays may hit
+     */
+    public Geometries cull(Frustum frustum) {
+        List<Intersectable> visible = new ArrayList<>();
+        if (this.unbounded != null) {
+            if (this.bvh != null)
+                this.bvh.cull(frustum, visible);
+            visible.addAll(this.unbounded);
+        } else
+            for (var geometry : this.geometries)
+                if (geometry.getBoundingBox() == null || !frustum.excludes(geometry.getBoundingBox()))
+                    visible.add(geometry);
+
+        return new Geometries(visible);
+    }
+
+    /**
+     * Counts the bounded geometries of the collection - the geometries that may be culled.
+     * The geometries in a bounding volume hierarchy are counted one by one
+     *
+     * @return the amount of bounded geometries
+     */
+    public int countBounded() {
+        if (this.unbounded != null)
+            return this.bvh == null ? 0 : this.bvh.size;
+
+        int count = 0;
+        for (var geometry : this.geometries)
+            if (geometry instanceof BvhNode)
+                count += ((BvhNode) geometry).size;
+            else if (geometry.getBoundingBox() != null)
+                count++;
+        return count;
+    }
+
+    /**
+     * Grows the bounding box of the collection to enclose the new geometries,
+     * so a ray that misses the whole collection is rejected by one test.
+     * Once an unbounded geometry is added the collection is unbounded as well
+     *
+     * @param geometries the new geometries
+     */
+    private void updateBoundingBox(Intersectable... geometries) {
+        for (var geometry : geometries) {
+            if (!this.bounded)
+                return;
+
+            BoundingBox geometryBox = geometry.getBoundingBox();
+            if (geometryBox == null) {
+                this.bounded = false;
+                this.box = null;
+            } else
+                this.box = this.box == null ? geometryBox : this.box.union(geometryBox);
+        }
+    }
 }
@@ -65,4 +65,32 @@ public abstract class Geometry extends Intersectable{
      * @return the normal vector (vertical) to the body at this point.
      */
     public abstract Vector getNormal(Point point);
+
+    /**
+     * Calculates the transparency of the geometry along a ray up to a maximal distance from its head.
+     * An opaque geometry only needs to know whether it is hit at all before the light source
+     *
+     * @param ray         the ray from the point towards the light source
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return the transparency along the ray, Double3.ZERO if the geometry blocks it
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        if (!material.kT.equals(Double3.ZERO))
+            return super.findTransparencyHelper(ray, maxDistance);
+        return isHitBefore(ray, maxDistance) ? Double3.ZERO : Double3.ONE;
+    }
+
+    /**
+     * Checks whether the geometry is hit by a ray before a maximal distance from its head - the occlusion test of
+     * a shadow ray. Geometries with a direct solution override it to compare the distance of their closest
+     * intersection without allocating, the default implementation searches for the closest hit
+     *
+     * @param ray         the ray from the point towards the light source
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return true if the ray hits the geometry before the maximal distance
+     */
+    protected boolean isHitBefore(Ray ray, double maxDistance) {
+        return findClosestHitHelper(ray, new Hit(maxDistance));
+    }
 }
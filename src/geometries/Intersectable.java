@@ -2,6 +2,7 @@ package geometries;
 
 import java.util.*;
 import primitives.*;
+import primitives.Vector;
 
 /**
  * "An Intersectable is an object that can be intersected by a ray."
@@ -34,6 +35,23 @@ public abstract class Intersectable {
             this.point = point;
         }
 
+        /**
+         * The normal of the geometry at the point, calculated on demand
+         */
+        private Vector normal = null;
+
+        /**
+         * Returns the normal of the geometry at the point.
+         * It is calculated on the first call only, so a point shaded by several effects computes it once
+         *
+         * @return the normal vector to the geometry at the point
+         */
+        public Vector getNormal() {
+            if (normal == null)
+                normal = geometry.getNormal(point);
+            return normal;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -51,12 +69,192 @@ public abstract class Intersectable {
         }
     }
 
+    /**
+     * A Hit is a mutable record of the closest intersection found so far along a ray,
+     * kept as primitives - the ray parameter (the distance from the head of the ray) and the geometry.
+     * Its distance is the limit every further candidate must beat,
+     * and the point is calculated only for the final hit
+     */
+    public static class Hit {
+        /**
+         * The geometry of the closest intersection, null while nothing was found
+         */
+        public Geometry geometry = null;
+        /**
+         * The ray parameter of the closest intersection, or the maximal distance while nothing was found
+         */
+        public double t;
+
+        /**
+         * A constructor for an empty Hit.
+         * @param maxDistance - the maximal distance of intersections to look for
+         */
+        public Hit(double maxDistance) {
+            this.t = maxDistance;
+        }
+
+        /**
+         * Records an intersection if it is closer than the closest one so far
+         *
+         * @param geometry the intersected geometry
+         * @param t        the ray parameter of the intersection
+         * @return true if the intersection was recorded
+         */
+        public boolean update(Geometry geometry, double t) {
+            if (t >= this.t)
+                return false;
+
+            this.t = t;
+            this.geometry = geometry;
+            return true;
+        }
+
+        /**
+         * Calculates the GeoPoint of the hit
+         *
+         * @param ray the ray that was intersected
+         * @return the GeoPoint, or null if nothing was found
+         */
+        public GeoPoint toGeoPoint(Ray ray) {
+            return geometry == null ? null : new GeoPoint(geometry, ray.getPoint(t));
+        }
+    }
+
+    /**
+     * The axis aligned box that encloses the intersectable object, computed once at construction.
+     * Infinite objects (such as planes and tubes) have no finite bounds and keep it null
+     */
+    protected BoundingBox box = null;
+
+    /**
+     * Returns the axis aligned box that encloses the intersectable object.
+     *
+     * @return the bounding box of the object, or null if the object is unbounded
+     */
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    /**
+     * Given a ray, find all the points where the ray intersects the object.
+     * Rays that miss the bounding box of the object are rejected without running the full intersection math
+     *
+     * @param ray The ray to test for intersections.
+     * @return A list of GeoPoints.
+     */
     public List<GeoPoint> findGeoIntersections(Ray ray) {
+        if (box != null && !box.intersects(ray))
+            return null;
         return findGeoIntersectionsHelper(ray);
     }
 
     protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray);
 
+    /**
+     * Given a ray, find the intersection point closest to its head
+     *
+     * @param ray The ray to test for intersections (with a normalized direction).
+     * @return The closest GeoPoint, or null if there are no intersections.
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Given a ray, find the intersection point closest to its head, among the points closer than a maximal distance.
+     * Only the winning hit is materialized as a GeoPoint
+     *
+     * @param ray         The ray to test for intersections (with a normalized direction).
+     * @param maxDistance The maximal distance from the head of the ray.
+     * @return The closest GeoPoint, or null if there are no intersections before the maximal distance.
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        Hit hit = new Hit(maxDistance);
+        return findClosestHit(ray, hit) ? hit.toGeoPoint(ray) : null;
+    }
+
+    /**
+     * Given a ray, record the intersection point closest to its head if it is closer than the closest hit so far.
+     * Composite objects pass the same hit to all their children,
+     * so every child rejects the points beyond the best one found so far.
+     * Rays that miss the bounding box of the object before the distance of the hit are rejected immediately
+     *
+     * @param ray The ray to test for intersections (with a normalized direction).
+     * @param hit The closest hit so far, updated if a closer intersection point is found.
+     * @return true if the hit was updated.
+     */
+    public boolean findClosestHit(Ray ray, Hit hit) {
+        if (box != null && !box.intersects(ray, hit.t))
+            return false;
+        return findClosestHitHelper(ray, hit);
+    }
+
+    /**
+     * Given a ray, record the intersection point closest to its head if it is closer than the closest hit so far.
+     * The default implementation goes over all the intersections of the object,
+     * geometries with a direct solution override it
+     *
+     * @param ray The ray to test for intersections.
+     * @param hit The closest hit so far, updated if a closer intersection point is found.
+     * @return true if the hit was updated.
+     */
+    protected boolean findClosestHitHelper(Ray ray, Hit hit) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray);
+        if (intersections == null)
+            return false;
+
+        boolean found = false;
+        Point p0 = ray.getP0();
+        for (GeoPoint geoPoint : intersections)
+            found |= hit.update(geoPoint.geometry, geoPoint.point.distance(p0));
+
+        return found;
+    }
+
+    /**
+     * Calculates the transparency along a ray up to a maximal distance from its head - the product of the
+     * transparency coefficients (kT) of all the geometries the ray crosses before that distance.
+     * Meant for shadow rays, where only the amount of light that passes matters and not the intersection points,
+     * so the search stops at the first opaque geometry.
+     * Rays that miss the bounding box of the object before the maximal distance pass it entirely
+     *
+     * @param ray         the ray from the point towards the light source (with a normalized direction)
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return the transparency along the ray, Double3.ZERO if an opaque geometry blocks it
+     */
+    public Double3 findTransparency(Ray ray, double maxDistance) {
+        if (box != null && !box.intersects(ray, maxDistance))
+            return Double3.ONE;
+        return findTransparencyHelper(ray, maxDistance);
+    }
+
+    /**
+     * Calculates the transparency along a ray up to a maximal distance from its head.
+     * The default implementation goes over the intersections of the object,
+     * composite objects override it to stop at the first opaque child
+     *
+     * @param ray         the ray from the point towards the light source
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return the transparency along the ray, Double3.ZERO if an opaque geometry blocks it
+     */
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        Double3 ktr = Double3.ONE;
+
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray);
+        if (intersections == null)
+            return ktr;
+
+        Point p0 = ray.getP0();
+        for (GeoPoint geoPoint : intersections)
+            if (geoPoint.point.distance(p0) < maxDistance) {
+                ktr = geoPoint.geometry.getMaterial().kT.product(ktr);
+                if (ktr.equals(Double3.ZERO))
+                    return Double3.ZERO; // an opaque geometry - no light passes
+            }
+
+        return ktr;
+    }
+
     /**
      * Given a ray, find all the points where the ray intersects the sphere
      *
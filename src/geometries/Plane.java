@@ -89,31 +89,68 @@ public class Plane extends Geometry {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        double t = findIntersectionDistance(ray);
+
+        //if the ray after the plane, there is no intersections points
+        if (t <= 0)
+            return null;
+
+        //the ray crosses the plane
+        return List.of(new GeoPoint(this, ray.getPoint(t)));
+    }
+
+    /**
+     * Given a ray, record the intersection point with the plane if it is closer than the closest hit so far
+     *
+     * @param ray The ray to test for intersections.
+     * @param hit The closest hit so far, updated if the intersection point is closer.
+     * @return true if the hit was updated.
+     */
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, Hit hit) {
+        double t = findIntersectionDistance(ray);
+        return t > 0 && hit.update(this, t);
+    }
+
+    /**
+     * Checks whether the plane is hit by a ray before a maximal distance from its head
+     *
+     * @param ray         the ray from the point towards the light source
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return true if the ray hits the plane before the maximal distance
+     */
+    @Override
+    protected boolean isHitBefore(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray);
+        return t > 0 && t < maxDistance;
+    }
+
+    /**
+     * Calculates the distance (the ray parameter) of the intersection point of the ray with the plane
+     *
+     * @param ray The ray to test for intersections.
+     * @return the ray parameter of the intersection point, or 0 if the ray doesn't cross the plane
+     */
+    private double findIntersectionDistance(Ray ray) {
         //t=n*(q0-Po)/n*v
         Point p0 = ray.getP0();
         Vector v = ray.getDir();
 
         //if the ray on the plane, there is no intersections points
         if (this.q0.equals(p0))
-            return null;
+            return 0;
 
-        double nqp = this.normal.dotProduct(this.q0.subtract(p0));
+        // n * (q0 - p0)
+        double nqp = VectorMath.subDot(this.q0, p0, this.normal);
         //if the ray on the plane, there is no intersections points
         if (isZero(nqp))
-            return null;
+            return 0;
 
         double nv = this.normal.dotProduct(v);
         //if this is zero the denominator is zero, and this is illegal
         if (isZero(nv))
-            return null;
-
-        double t = nqp / nv;
+            return 0;
 
-        //if the ray after the plane, there is no intersections points
-        if (t <= 0)
-            return null;
-
-        //the ray crosses the plane
-        return List.of(new GeoPoint(this, ray.getPoint(t)));
+        return nqp / nv;
     }
 }
@@ -21,6 +21,79 @@ public class Polygon extends Geometry {
 	protected final Plane plane;
 	private int size;
 
+	/**
+	 * The plane and the edges of the polygon as raw coordinates for the intersection test,
+	 * null for a triangle that has an intersection test of its own
+	 */
+	private final Edges edges;
+
+	/**
+	 * The plane and the edges of a polygon, computed once, so the per-ray test is a handful of dot products
+	 */
+	private static final class Edges {
+		/**
+		 * The unit normal of the plane and its offset (n*q0)
+		 */
+		private final double nx, ny, nz, nd;
+
+		/**
+		 * The in-plane unit normals of the edges, 3 coordinates per edge, all pointing into the polygon.
+		 * The edge i goes from vertex i to vertex i+1
+		 */
+		private final double[] normals;
+
+		/**
+		 * The offsets of the edge normals (m_i*v_i), so the signed distance of a point p from the edge i
+		 * is m_i*p - offset_i
+		 */
+		private final double[] offsets;
+
+		/**
+		 * Calculates the plane of the polygon, and the in-plane normals of its edges and their offsets.
+		 * The normal of an edge is n x edge, flipped if needed so that it points towards the rest of the polygon
+		 *
+		 * @param vertices the vertices of the polygon
+		 * @param normal   the unit normal of the plane of the polygon
+		 */
+		private Edges(Point[] vertices, Vector normal) {
+			nx = normal.getX();
+			ny = normal.getY();
+			nz = normal.getZ();
+			nd = nx * vertices[0].getX() + ny * vertices[0].getY() + nz * vertices[0].getZ();
+
+			int numOfVertices = vertices.length;
+			normals = new double[3 * numOfVertices];
+			offsets = new double[numOfVertices];
+			for (int i = 0; i < numOfVertices; ++i) {
+				Point v1 = vertices[i];
+				Point v2 = vertices[(i + 1) % numOfVertices];
+				Point v3 = vertices[(i + 2) % numOfVertices];
+
+				double ex = v2.getX() - v1.getX();
+				double ey = v2.getY() - v1.getY();
+				double ez = v2.getZ() - v1.getZ();
+
+				// m = n x edge, normalized
+				double mx = ny * ez - nz * ey;
+				double my = nz * ex - nx * ez;
+				double mz = nx * ey - ny * ex;
+				double length = Math.sqrt(mx * mx + my * my + mz * mz);
+
+				// the next vertex must be inside, otherwise the normal points outside
+				if (mx * (v3.getX() - v1.getX()) + my * (v3.getY() - v1.getY()) + mz * (v3.getZ() - v1.getZ()) < 0)
+					length = -length;
+
+				mx /= length;
+				my /= length;
+				mz /= length;
+				normals[3 * i] = mx;
+				normals[3 * i + 1] = my;
+				normals[3 * i + 2] = mz;
+				offsets[i] = mx * v1.getX() + my * v1.getY() + mz * v1.getZ();
+			}
+		}
+	}
+
 	/**
 	 * Polygon constructor based on vertices list. The list must be ordered by edge
 	 * path. The polygon must be convex.
@@ -43,6 +116,19 @@ public class Polygon extends Geometry {
 	 *                                  </ul>
 	 */
 	public Polygon(Point... vertices) {
+		this(true, vertices);
+	}
+
+	/**
+	 * Polygon constructor that may skip the precomputation of the edges, for a subclass that overrides
+	 * the intersection of the polygon with an intersection of its own
+	 *
+	 * @param withEdges whether to precompute the plane and the edges for the intersection test of the polygon
+	 * @param vertices  list of vertices according to their order by edge path
+	 * @throws IllegalArgumentException in any case of illegal combination of vertices,
+	 *                                  as in {@link #Polygon(Point...)}
+	 */
+	protected Polygon(boolean withEdges, Point... vertices) {
 		if (vertices.length < 3)
 			throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
 		this.vertices = List.of(vertices);
@@ -50,8 +136,12 @@ public class Polygon extends Geometry {
 		// polygon with this plane.
 		// The plane holds the invariant normal (orthogonal unit) vector to the polygon
 		plane = new Plane(vertices[0], vertices[1], vertices[2]);
-		if (vertices.length == 3)
+		box = new BoundingBox(vertices);
+
+		if (vertices.length == 3) {
+			edges = withEdges ? new Edges(vertices, plane.getNormal()) : null;
 			return; // no need for more tests for a Triangle
+		}
 
 		Vector n = plane.getNormal();
 
@@ -81,6 +171,23 @@ public class Polygon extends Geometry {
 				throw new IllegalArgumentException("All vertices must be ordered and the polygon must be convex");
 		}
 		size = vertices.length;
+		edges = withEdges ? new Edges(vertices, n) : null;
+	}
+
+	/**
+	 * Returns the vertices of the polygon
+	 *
+	 * @return the vertices, in order around the polygon
+	 */
+	public List<Point> getVertices() {
+		return vertices;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "{" +
+				"vertices=" + vertices +
+				'}';
 	}
 
 	/**
@@ -102,41 +209,75 @@ public class Polygon extends Geometry {
 	 */
 	@Override
 	protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-		List<GeoPoint> intersections = this.plane.findGeoIntersections(ray);
+		double t = findIntersectionDistance(ray);
+		return t <= 0 ? null : List.of(new GeoPoint(this, ray.getPoint(t)));
+	}
 
-		if (intersections == null)
-			return null; // no Intersections at all in the plane
+	/**
+	 * Given a ray, record the intersection point with the polygon if it is closer than the closest hit so far
+	 *
+	 * @param ray The ray to test for intersections.
+	 * @param hit The closest hit so far, updated if the intersection point is closer.
+	 * @return true if the hit was updated.
+	 */
+	@Override
+	protected boolean findClosestHitHelper(Ray ray, Hit hit) {
+		double t = findIntersectionDistance(ray);
+		return t > 0 && hit.update(this, t);
+	}
 
-		int numOfVertices = vertices.size();
+	/**
+	 * Checks whether the polygon is hit by a ray before a maximal distance from its head
+	 *
+	 * @param ray         the ray from the point towards the light source
+	 * @param maxDistance the distance of the light source from the head of the ray
+	 * @return true if the ray hits the polygon before the maximal distance
+	 */
+	@Override
+	protected boolean isHitBefore(Ray ray, double maxDistance) {
+		double t = findIntersectionDistance(ray);
+		return t > 0 && t < maxDistance;
+	}
+
+	/**
+	 * Calculates the distance (the ray parameter) of the intersection point of the ray with the polygon.
+	 * The ray is intersected with the plane, and the point is inside the polygon when it is strictly
+	 * on the inner side of every edge - a point on an edge or on a vertex is not an intersection
+	 *
+	 * @param ray The ray to test for intersections.
+	 * @return the ray parameter of the intersection point, or 0 if the ray doesn't cross the polygon
+	 */
+	private double findIntersectionDistance(Ray ray) {
 		Point p0 = ray.getP0();
 		Vector dir = ray.getDir();
+		double px = p0.getX(), py = p0.getY(), pz = p0.getZ();
+		double nx = edges.nx, ny = edges.ny, nz = edges.nz;
+		double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
 
-		Vector v1 = vertices.get(numOfVertices - 1).subtract(p0);
-		Vector v2 = vertices.get(0).subtract(p0);
-
-		Vector n = v1.crossProduct(v2).normalize();
-		double vn = dir.dotProduct(n);
-		boolean positive = vn > 0;
+		// if the head of the ray is on the plane, there is no intersections points
+		double nqp = edges.nd - (nx * px + ny * py + nz * pz);
+		if (isZero(nqp))
+			return 0;
 
-		if (isZero(vn))
-			return null;
+		// if the ray is parallel to the plane, there is no intersections points
+		double nv = nx * dx + ny * dy + nz * dz;
+		if (isZero(nv))
+			return 0;
 
-		for (int i = 1; i < numOfVertices; ++i) {
-			v1 = v2;
-			v2 = vertices.get(i).subtract(p0);
-			n = v1.crossProduct(v2).normalize();
-			vn = dir.dotProduct(n);
+		double t = nqp / nv;
+		if (t <= 0)
+			return 0;
 
-			//no intersection
-			if (isZero(vn))
-				return null;
+		// the intersection point with the plane
+		double x = px + t * dx;
+		double y = py + t * dy;
+		double z = pz + t * dz;
 
-			//not the same sign
-			if (vn > 0 != positive)
-				return null;
-		}
+		double[] normals = edges.normals, offsets = edges.offsets;
+		for (int i = 0; i < offsets.length; ++i)
+			if (alignZero(normals[3 * i] * x + normals[3 * i + 1] * y + normals[3 * i + 2] * z - offsets[i]) <= 0)
+				return 0;
 
-		intersections.get(0).geometry = this;
-		return intersections;
+		return t;
 	}
 }
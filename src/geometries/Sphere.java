@@ -28,6 +28,9 @@ public class Sphere extends Geometry {
 
         this.center = center;
         this.radius = radius;
+        this.box = new BoundingBox(
+                center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
     }
 
     public Point getCenter() {
@@ -69,22 +72,15 @@ public class Sphere extends Geometry {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        Point p0 = ray.getP0();
-        Vector v = ray.getDir();
-
-        if (p0.equals(this.center))
+        if (ray.getP0().equals(this.center))
             return List.of(new GeoPoint(this, ray.getPoint(radius)));
 
-        Vector u = this.center.subtract(p0);
-        double tm = v.dotProduct(u);
-        double d = alignZero(Math.sqrt(u.lengthSquared() - tm * tm));
-
-        if (d >= this.radius)
+        double[] roots = findRoots(ray);
+        if (roots == null)
             return null;
 
-        double th = alignZero(Math.sqrt(this.radius * this.radius - d * d));
-        double t1 = alignZero(tm + th);
-        double t2 = alignZero(tm - th);
+        double t1 = alignZero(roots[1]);
+        double t2 = alignZero(roots[0]);
 
         if (t1 > 0 && t2 > 0)
             return List.of(new GeoPoint(this, ray.getPoint(t1)), new GeoPoint(this,ray.getPoint(t2)));
@@ -97,4 +93,75 @@ public class Sphere extends Geometry {
 
         return null;
     }
+
+    /**
+     * Given a ray, record the intersection point with the sphere closest to its head
+     * if it is closer than the closest hit so far
+     *
+     * @param ray The ray to test for intersections.
+     * @param hit The closest hit so far, updated if the intersection point is closer.
+     * @return true if the hit was updated.
+     */
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, Hit hit) {
+        double t = findIntersectionDistance(ray);
+        return t > 0 && hit.update(this, t);
+    }
+
+    /**
+     * Checks whether the sphere is hit by a ray before a maximal distance from its head
+     *
+     * @param ray         the ray from the point towards the light source
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return true if the ray hits the sphere before the maximal distance
+     */
+    @Override
+    protected boolean isHitBefore(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray);
+        return t > 0 && t < maxDistance;
+    }
+
+    /**
+     * Calculates the distance (the ray parameter) of the intersection point of the ray with the sphere
+     * closest to its head
+     *
+     * @param ray The ray to test for intersections.
+     * @return the ray parameter of the closest intersection point, or 0 if the ray doesn't cross the sphere
+     */
+    private double findIntersectionDistance(Ray ray) {
+        if (ray.getP0().equals(this.center))
+            return this.radius;
+
+        double[] roots = findRoots(ray);
+        if (roots == null)
+            return 0;
+
+        // the nearer point is in front of the head, unless the head is inside the sphere
+        double t = alignZero(roots[0]);
+        if (t <= 0)
+            t = alignZero(roots[1]);
+
+        return t > 0 ? t : 0;
+    }
+
+    /**
+     * Solves the ray parameters of the two points where the ray's line crosses the sphere,
+     * the head of the ray must not be the center of the sphere
+     *
+     * @param ray The ray to test for intersections.
+     * @return the nearer and the farther ray parameters (tm - th, tm + th),
+     * or null if the ray's line doesn't cross the sphere
+     */
+    private double[] findRoots(Ray ray) {
+        Point p0 = ray.getP0();
+
+        double tm = VectorMath.subDot(this.center, p0, ray.getDir());
+        double d = alignZero(Math.sqrt(this.center.distanceSquared(p0) - tm * tm));
+
+        if (d >= this.radius)
+            return null;
+
+        double th = alignZero(Math.sqrt(this.radius * this.radius - d * d));
+        return new double[]{tm - th, tm + th};
+    }
 }
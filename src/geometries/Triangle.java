@@ -12,6 +12,21 @@ import static primitives.Util.*;
  */
 public class Triangle extends Polygon {
 
+    /**
+     * The first vertex of the triangle, kept as raw coordinates for the intersection test
+     */
+    private final double p1x, p1y, p1z;
+
+    /**
+     * The edge from the first vertex to the second one (p2 - p1)
+     */
+    private final double e1x, e1y, e1z;
+
+    /**
+     * The edge from the first vertex to the third one (p3 - p1)
+     */
+    private final double e2x, e2y, e2z;
+
     /**
      * Constructor to initialize Triangle based on Polygon with 3 points
      *
@@ -20,7 +35,19 @@ public class Triangle extends Polygon {
      * @param p3 third point value
      */
     public Triangle(Point p1, Point p2, Point p3) {
-        super(p1, p2, p3);
+        // the triangle has an intersection test of its own, it doesn't need the edges of the polygon test
+        super(false, p1, p2, p3);
+
+        // the edges are computed once, so the intersection test runs on primitive doubles only
+        this.p1x = p1.getX();
+        this.p1y = p1.getY();
+        this.p1z = p1.getZ();
+        this.e1x = p2.getX() - this.p1x;
+        this.e1y = p2.getY() - this.p1y;
+        this.e1z = p2.getZ() - this.p1z;
+        this.e2x = p3.getX() - this.p1x;
+        this.e2y = p3.getY() - this.p1y;
+        this.e2z = p3.getZ() - this.p1z;
     }
 
     /**
@@ -31,37 +58,81 @@ public class Triangle extends Polygon {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
-        List<GeoPoint> intersections = this.plane.findGeoIntersections(ray);
+        double t = findIntersectionDistance(ray);
+        return t <= 0 ? null : List.of(new GeoPoint(this, ray.getPoint(t)));
+    }
 
-        if (intersections == null)
-            return null;
+    /**
+     * Given a ray, record the intersection point with the triangle if it is closer than the closest hit so far
+     *
+     * @param ray The ray to test for intersections.
+     * @param hit The closest hit so far, updated if the intersection point is closer.
+     * @return true if the hit was updated.
+     */
+    @Override
+    protected boolean findClosestHitHelper(Ray ray, Hit hit) {
+        double t = findIntersectionDistance(ray);
+        return t > 0 && hit.update(this, t);
+    }
 
+    /**
+     * Checks whether the triangle is hit by a ray before a maximal distance from its head
+     *
+     * @param ray         the ray from the point towards the light source
+     * @param maxDistance the distance of the light source from the head of the ray
+     * @return true if the ray hits the triangle before the maximal distance
+     */
+    @Override
+    protected boolean isHitBefore(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray);
+        return t > 0 && t < maxDistance;
+    }
+
+    /**
+     * Calculates the distance (the ray parameter) of the intersection point of the ray with the triangle,
+     * by the Moller-Trumbore algorithm: the point is written as p1 + u*e1 + v*e2 and the ray is solved for
+     * its barycentric coordinates (u, v) and its parameter t by Cramer's rule.
+     * The point is inside the triangle when u > 0, v > 0 and u + v < 1 -
+     * a point on an edge or on a vertex is not an intersection
+     *
+     * @param ray The ray to test for intersections.
+     * @return the ray parameter of the intersection point, or 0 if the ray doesn't cross the triangle
+     */
+    private double findIntersectionDistance(Ray ray) {
         Point p0 = ray.getP0();
         Vector v = ray.getDir();
+        double dx = v.getX(), dy = v.getY(), dz = v.getZ();
+
+        // pVec = dir x e2
+        double px = dy * this.e2z - dz * this.e2y;
+        double py = dz * this.e2x - dx * this.e2z;
+        double pz = dx * this.e2y - dy * this.e2x;
+
+        // if the determinant is zero the ray is parallel to the plane of the triangle
+        double det = this.e1x * px + this.e1y * py + this.e1z * pz;
+        if (isZero(det))
+            return 0;
+        double invDet = 1 / det;
+
+        // tVec = p0 - p1
+        double tx = p0.getX() - this.p1x;
+        double ty = p0.getY() - this.p1y;
+        double tz = p0.getZ() - this.p1z;
+
+        double u = alignZero((tx * px + ty * py + tz * pz) * invDet);
+        if (u <= 0 || u >= 1)
+            return 0;
+
+        // qVec = tVec x e1
+        double qx = ty * this.e1z - tz * this.e1y;
+        double qy = tz * this.e1x - tx * this.e1z;
+        double qz = tx * this.e1y - ty * this.e1x;
+
+        double w = alignZero((dx * qx + dy * qy + dz * qz) * invDet);
+        if (w <= 0 || alignZero(1 - u - w) <= 0)
+            return 0;
 
-        Vector v1 = this.vertices.get(0).subtract(p0); // p1-p0
-        Vector v2 = this.vertices.get(1).subtract(p0); // p2-p0
-        Vector v3 = this.vertices.get(2).subtract(p0); // p3-p0
-
-        Vector n1 = v1.crossProduct(v2).normalize();
-        Vector n2 = v2.crossProduct(v3).normalize();
-        Vector n3 = v3.crossProduct(v1).normalize();
-
-        double product1 = v.dotProduct(n1);
-        double product2 = v.dotProduct(n2);
-        double product3 = v.dotProduct(n3);
-
-        //If all the products are the same sign, a point of intersection within the triangle
-        if ((product1 > 0 && product2 > 0 && product3 > 0) || (product1 < 0 && product2 < 0 && product3 < 0)) {
-            intersections.get(0).geometry = this;
-            return intersections;
-        }
-
-        //1. If one product is zero the point on a rib or on the continuation of the rib
-        //2. If 2 multiples are reset the point on one of the vertices of the triangle
-        //3. If 3 multiples are reset it is not possible
-        //4. If 2 positive multiples and 1 negative product then the point of intersection in front of the side
-        //5. If 2 multiples are negative and 1 product is positive then the point of intersection is opposite the vertex
-        return null;
+        double t = alignZero((this.e2x * qx + this.e2y * qy + this.e2z * qz) * invDet);
+        return t > 0 ? t : 0;
     }
 }
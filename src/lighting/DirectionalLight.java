@@ -57,4 +57,11 @@ public class DirectionalLight extends Light implements LightSource {
     public double getDistance(Point point) {
         return Double.POSITIVE_INFINITY;
     }
+
+    @Override
+    public String toString() {
+        return "DirectionalLight{" +
+                "direction=" + direction +
+                "} " + super.toString();
+    }
 }
@@ -26,4 +26,11 @@ abstract class Light {
     public Color getIntensity() {
         return this.intensity;
     }
+
+    @Override
+    public String toString() {
+        return "Light{" +
+                "intensity=" + intensity +
+                '}';
+    }
 }
@@ -98,4 +98,14 @@ public class PointLight extends Light implements LightSource{
     public double getDistance(Point point) {
         return this.position.distance(point);
     }
+
+    @Override
+    public String toString() {
+        return "PointLight{" +
+                "position=" + position +
+                ", kC=" + kC +
+                ", kL=" + kL +
+                ", kQ=" + kQ +
+                "} " + super.toString();
+    }
 }
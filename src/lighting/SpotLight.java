@@ -51,4 +51,12 @@ public class SpotLight extends PointLight {
         this.angle = angle;
         return this;
     }
+
+    @Override
+    public String toString() {
+        return "SpotLight{" +
+                "direction=" + direction +
+                ", angle=" + angle +
+                "} " + super.toString();
+    }
 }
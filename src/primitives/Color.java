@@ -76,6 +76,47 @@ public class Color {
 		return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
 	}
 
+	/**
+	 * Red component getter
+	 *
+	 * @return the red component, 0 or more
+	 */
+	public double getRed() {
+		return rgb.d1;
+	}
+
+	/**
+	 * Green component getter
+	 *
+	 * @return the green component, 0 or more
+	 */
+	public double getGreen() {
+		return rgb.d2;
+	}
+
+	/**
+	 * Blue component getter
+	 *
+	 * @return the blue component, 0 or more
+	 */
+	public double getBlue() {
+		return rgb.d3;
+	}
+
+	/**
+	 * Color getter - returns the color packed into an int in the default RGB
+	 * model of java.awt (8 bits per component and an opaque alpha), without
+	 * creating a java.awt.Color object. Any component bigger than 255 is set to 255
+	 *
+	 * @return the packed RGB components, the same as getColor().getRGB()
+	 */
+	public int getRGB() {
+		int ir = (int) rgb.d1;
+		int ig = (int) rgb.d2;
+		int ib = (int) rgb.d3;
+		return 0xFF000000 | (ir > 255 ? 255 : ir) << 16 | (ig > 255 ? 255 : ig) << 8 | (ib > 255 ? 255 : ib);
+	}
+
 	/**
 	 * Operation of adding this and one or more other colors (by component)
 	 *
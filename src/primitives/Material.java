@@ -89,4 +89,15 @@ public class Material {
         this.nShininess = nShininess;
         return this;
     }
+
+    @Override
+    public String toString() {
+        return "Material{" +
+                "kD=" + kD +
+                ", kS=" + kS +
+                ", kR=" + kR +
+                ", kT=" + kT +
+                ", nShininess=" + nShininess +
+                '}';
+    }
 }
@@ -20,6 +20,18 @@ public class Point {
         this.xyz = new Double3(x, y, z);
     }
 
+    /**
+     * Constructor to initialize Point based object with its three primitive number values,
+     * used inside the package to avoid boxing the coordinates
+     *
+     * @param x first number value
+     * @param y second number value
+     * @param z third number value
+     */
+    Point(double x, double y, double z) {
+        this.xyz = new Double3(x, y, z);
+    }
+
     /**
      * Constructor to initialize Point based object of Double3
      *
@@ -51,7 +63,7 @@ public class Point {
 
     @Override
     public String toString() {
-        return super.toString();
+        return xyz.toString();
     }
 
     /**
@@ -86,10 +98,9 @@ public class Point {
         if(this.equals(point))
             return 0;
 
-        Point newPoint = this.subtract(point);
-        double x = newPoint.xyz.d1;
-        double y = newPoint.xyz.d2;
-        double z = newPoint.xyz.d3;
+        double x = this.xyz.d1 - point.xyz.d1;
+        double y = this.xyz.d2 - point.xyz.d2;
+        double z = this.xyz.d3 - point.xyz.d3;
 
         return x * x + y * y + z * z;
     }
@@ -88,7 +88,8 @@ public class Ray {
         if (isZero(t))
             return p0;
 
-        return p0.add(dir.scale(alignZero(t)));
+        t = alignZero(t);
+        return new Point(p0.xyz.d1 + dir.xyz.d1 * t, p0.xyz.d2 + dir.xyz.d2 * t, p0.xyz.d3 + dir.xyz.d3 * t);
     }
 
     /**
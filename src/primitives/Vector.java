@@ -84,8 +84,7 @@ public class Vector extends Point {
      * @return Scalar after the multiply
      */
     public double dotProduct(Vector vector) {
-        Double3 xyz = this.xyz.product(vector.xyz);
-        return xyz.d1 + xyz.d2 + xyz.d3;
+        return this.xyz.d1 * vector.xyz.d1 + this.xyz.d2 * vector.xyz.d2 + this.xyz.d3 * vector.xyz.d3;
     }
 
     /**
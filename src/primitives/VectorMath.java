@@ -0,0 +1,58 @@
+package primitives;
+
+/**
+ * Static helpers for the vector algebra of the hot intersection and shading paths.
+ * The helpers work on the raw coordinates, so they don't allocate intermediate points or vectors
+ */
+public final class VectorMath {
+
+    /**
+     * Don't let anyone instantiate this class
+     */
+    private VectorMath() {
+    }
+
+    /**
+     * Dot product of two vectors given by their coordinates
+     *
+     * @param x1 the x coordinate of the first vector
+     * @param y1 the y coordinate of the first vector
+     * @param z1 the z coordinate of the first vector
+     * @param x2 the x coordinate of the second vector
+     * @param y2 the y coordinate of the second vector
+     * @param z2 the z coordinate of the second vector
+     * @return x1 * x2 + y1 * y2 + z1 * z2
+     */
+    public static double dot(double x1, double y1, double z1, double x2, double y2, double z2) {
+        return x1 * x2 + y1 * y2 + z1 * z2;
+    }
+
+    /**
+     * Dot product of the difference of two points with a vector: (to - from) * vector
+     *
+     * @param to     the head of the difference
+     * @param from   the tail of the difference
+     * @param vector the vector to multiply by
+     * @return (to - from) * vector
+     */
+    public static double subDot(Point to, Point from, Vector vector) {
+        return dot(to.xyz.d1 - from.xyz.d1, to.xyz.d2 - from.xyz.d2, to.xyz.d3 - from.xyz.d3,
+                vector.xyz.d1, vector.xyz.d2, vector.xyz.d3);
+    }
+
+    /**
+     * Dot product of a scaled sum of vectors with a vector: (base + added * scale) * vector
+     *
+     * @param base   the vector to add to
+     * @param added  the vector to scale and add
+     * @param scale  the scale of the added vector
+     * @param vector the vector to multiply by
+     * @return (base + added * scale) * vector
+     */
+    public static double addScaledDot(Vector base, Vector added, double scale, Vector vector) {
+        return dot(base.xyz.d1 + added.xyz.d1 * scale,
+                base.xyz.d2 + added.xyz.d2 * scale,
+                base.xyz.d3 + added.xyz.d3 * scale,
+                vector.xyz.d1, vector.xyz.d2, vector.xyz.d3);
+    }
+}
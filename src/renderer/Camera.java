@@ -1,12 +1,26 @@
 package renderer;
 
+import geometries.Frustum;
+import geometries.Geometries;
+import geometries.Geometry;
 import geometries.Intersectable;
+import geometries.Intersectable.GeoPoint;
 import geometries.Plane;
+import lighting.LightSource;
 import primitives.*;
 import primitives.Vector;
+import scene.Scene;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
 
 import static java.lang.Math.sqrt;
 import static primitives.Util.*;
@@ -63,6 +77,101 @@ public class Camera {
     private RayTracerBase rayTracer;
 
 
+    /** Multithreading properties. **/
+
+    /**
+     * The amount of worker threads of the threaded rendering, all the available processors by default.
+     */
+    private int threadsCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The width and height in pixels of the tiles the image is rendered in.
+     */
+    private int tileSize = 16;
+
+
+    /** Checkpoint properties. **/
+
+    /**
+     * The name of the checkpoint file of the render, null for a render without a checkpoint.
+     */
+    private String checkpointName = null;
+
+    /**
+     * The minimal time in milliseconds between writes of the checkpoint to the storage device.
+     */
+    private long checkpointInterval = 10000;
+
+
+    /** Progressive rendering properties. **/
+
+    /**
+     * The amount of samples every pixel takes before its convergence is checked.
+     */
+    private static final int MIN_PROGRESSIVE_SAMPLES = 4;
+
+    /**
+     * The maximal amount of passes of a progressive render - the most samples a pixel takes.
+     */
+    private int maxPasses = 64;
+
+    /**
+     * The quality target of a progressive render - the standard error of the luminance of a pixel
+     * (in color units, 1 is a single level of a printed image) below which the pixel stops taking samples.
+     */
+    private double tolerance = 1;
+
+    /**
+     * The listener that is called after every pass of a progressive render with the number of the pass, null for none.
+     */
+    private IntConsumer passListener = null;
+
+    /**
+     * The wall clock time budget of a progressive render in milliseconds, 0 for a render without a budget.
+     */
+    private long timeBudget = 0;
+
+    /**
+     * The clock of the time budget in nanoseconds - the system's, unless a test controls the passing of time
+     */
+    private LongSupplier clock = System::nanoTime;
+
+    /**
+     * Whether every tile is rendered against the geometries in its frustum only
+     */
+    private boolean frustumCulling = false;
+
+    /**
+     * The geometries the tile of the current thread may see, null when the tile isn't culled
+     */
+    private final ThreadLocal<Geometries> visibleGeometries = new ThreadLocal<>();
+
+    /**
+     * The bounded geometries the culled tiles of the last render were tested against, summed over the tiles
+     */
+    private final AtomicLong cullTested = new AtomicLong();
+
+    /**
+     * The bounded geometries that were culled from the tiles of the last render, summed over the tiles
+     */
+    private final AtomicLong cullCulled = new AtomicLong();
+
+    /**
+     * Whether the primary visibility is rasterized into a geometry buffer instead of traced, where it can be
+     */
+    private boolean hybridRasterization = false;
+
+    /**
+     * The geometry buffer of the primary visibility of the current render, null when it isn't rasterized
+     */
+    private GBuffer gBuffer = null;
+
+    /**
+     * The geometries of the scene that can't be rasterized, traced by the primary rays of a rasterized render
+     */
+    private Geometries tracedGeometries = null;
+
+
     /** Anti Aliasing properties. **/
 
     /**
@@ -75,6 +184,27 @@ public class Camera {
      */
     private int gridSize = 3;
 
+    /**
+     * The maximal depth of the recursive adaptive super sampling, 0 for the uniform grid of gridSize
+     */
+    private int adaptiveDepth = 0;
+
+    /**
+     * The largest difference of a color component between the corners of an area that are alike
+     */
+    private double colorTolerance = 1;
+
+    /**
+     * The amount of joint samples of a pixel with both anti-aliasing and depth of field, 0 to sample every
+     * point of the pixel by the whole aperture
+     */
+    private int jointSamples = 0;
+
+    /**
+     * The sampler of the points of the pixels and of the aperture
+     */
+    private Sampler sampler = Sampler.halton(0);
+
 
     /** Depth Of Filed properties. **/
 
@@ -100,6 +230,22 @@ public class Camera {
      */
     private Point[] aperturePoints;
 
+    /**
+     * The amount of points of the aperture when it is sampled adaptively - by a few probe rays first, and by all these
+     * points only if they differ; 0 if the aperture isn't sampled adaptively
+     */
+    private int adaptiveApertureSamples = 0;
+
+    /**
+     * The points of the aperture grid that is sampled adaptively, null if the aperture isn't sampled adaptively
+     */
+    private Point[] adaptiveAperturePoints;
+
+    /**
+     * The largest difference of a color component between the probe rays of the aperture that are alike
+     */
+    private double apertureTolerance = 1;
+
     /** Focal plane parameters. **/
 
     /**
@@ -276,6 +422,30 @@ public class Camera {
      * @return The camera itself.
      */
     public Camera renderImage() {
+        return renderTiles(1);
+    }
+
+    /**
+     * The image is split into tiles that are rendered on a dedicated pool of threadsCount worker threads.
+     * Every worker renders whole tiles, taken in a cache friendly order, and an idle worker steals
+     * blocks of tiles from a busy one, so the cores are kept busy until the last tile.
+     * The image doesn't depend on the amount of threads, the size of the tiles or the order they are rendered in -
+     * every pixel is computed by itself, and its samples are a function of the seed of the sampler and the pixel,
+     * so the image is bit identical to that of renderImage
+     *
+     * @return The camera itself.
+     */
+    public Camera renderImageThreaded() {
+        return renderTiles(this.threadsCount);
+    }
+
+    /**
+     * Renders the image tile by tile with a given amount of worker threads
+     *
+     * @param threadsCount the amount of worker threads, 1 renders on the calling thread
+     * @return The camera itself.
+     */
+    private Camera renderTiles(int threadsCount) {
         try {
             this.checkImgWriter();
             this.checkRayTracer();
@@ -286,45 +456,762 @@ public class Camera {
         final int nX = this.imageWriter.getNx();
         final int nY = this.imageWriter.getNy();
 
-        for (int i = 0; i < nX; i++)
-            for (int j = 0; j < nY; j++) {
-                if (antiAliasing && adaptiveGrid(nX, nY, j, i))
-                    this.imageWriter.writePixel(j, i, this.fragmentPixelToGrid(i, j));
-                else
-                    this.imageWriter.writePixel(j, i, this.castRay(this.imageWriter.getNx(), this.imageWriter.getNy(), j, i));
+        this.cullTested.set(0);
+        this.cullCulled.set(0);
+
+        // a streamed image is flushed band after band, so its tiles are rendered in rows
+        TileRenderer tileRenderer = new TileRenderer(nX, nY, this.tileSize, threadsCount, this.imageWriter.isStreaming());
+        TileCheckpoint checkpoint = this.openCheckpoint(tileRenderer.getTiles());
+
+        boolean finished = false;
+        try {
+            this.rasterize(nX, nY);
+            this.renderTiles(tileRenderer, checkpoint, nX, nY);
+            finished = true;
+        } finally {
+            this.gBuffer = null;
+            this.tracedGeometries = null;
+            // a failed render doesn't leave the streamed file open, or a truncated image
+            if (!finished)
+                this.imageWriter.discardStream();
+            if (checkpoint != null)
+                closeCheckpoint(checkpoint, finished);
+        }
+
+        return this;
+    }
+
+    /**
+     * Renders the tiles of the image, and logs them in the checkpoint
+     *
+     * @param tileRenderer the tiles of the image
+     * @param checkpoint   the checkpoint of the render, null for a render without a checkpoint
+     * @param nX           The amount of columns (row width) of the pixel in the image.
+     * @param nY           The amount of rows (column height) of the pixel in the image.
+     */
+    private void renderTiles(TileRenderer tileRenderer, TileCheckpoint checkpoint, int nX, int nY) {
+        tileRenderer.render(tile -> {
+            float[] colors = checkpoint == null ? null : checkpoint.getRestored(tile);
+            if (colors != null) { // the tile was finished by a previous render
+                this.writeTile(tile, colors);
+                return;
+            }
+
+            colors = checkpoint == null ? null : new float[TileCheckpoint.colorsCount(tile)];
+            int k = 0;
+            Color[] pixels;
+            this.cullTile(tile, nX, nY);
+            try {
+                pixels = this.renderTile(tile, nX, nY);
+            } finally {
+                this.visibleGeometries.remove();
             }
+            for (int i = tile.y0, p = 0; i < tile.y1; i++)
+                for (int j = tile.x0; j < tile.x1; j++) {
+                    Color color = pixels[p++];
+                    this.imageWriter.writePixel(j, i, color);
+                    if (colors != null) {
+                        colors[k++] = ImageWriter.toFloat(color.getRed());
+                        colors[k++] = ImageWriter.toFloat(color.getGreen());
+                        colors[k++] = ImageWriter.toFloat(color.getBlue());
+                    }
+                }
+            if (checkpoint != null)
+                checkpoint.complete(tile, colors);
+        });
+    }
+
+    /**
+     * Closes the checkpoint of the render - deletes it if the render was finished, since there is nothing
+     * to resume, and keeps it for resuming otherwise
+     *
+     * @param checkpoint the checkpoint of the render
+     * @param finished   whether the render was finished
+     */
+    private void closeCheckpoint(TileCheckpoint checkpoint, boolean finished) {
+        try {
+            if (finished)
+                checkpoint.delete();
+            else
+                checkpoint.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - closing checkpoint " + this.checkpointName, e);
+        }
+    }
 
+    /**
+     * Opens the checkpoint of the render, if it is rendered with a checkpoint
+     *
+     * @param tiles the tiles of the render
+     * @return the checkpoint, or null for a render without a checkpoint
+     */
+    private TileCheckpoint openCheckpoint(List<TileRenderer.Tile> tiles) {
+        if (this.checkpointName == null)
+            return null;
+
+        Path path = Path.of(System.getProperty("user.dir"), "images", this.checkpointName + ".ckpt");
+        try {
+            return new TileCheckpoint(path, this.fingerprint(), tiles, this.checkpointInterval);
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - opening checkpoint " + path, e);
+        }
+    }
+
+    /**
+     * Describes everything that changes the colors of the rendered pixels - the camera, the image, the tiles,
+     * the improvements, and the content of the scene (by a digest of its description), so a checkpoint of another
+     * render, or of a scene that was changed since, isn't resumed
+     *
+     * @return the fingerprint of the render
+     */
+    private String fingerprint() {
+        return "camera " + coordinates(this.p0) + coordinates(this.vTo) + coordinates(this.vUp)
+                + " vp " + this.width + "x" + this.height + " at " + this.distance
+                + " image " + this.imageWriter.getNx() + "x" + this.imageWriter.getNy() + " tiles " + this.tileSize
+                + " aa " + this.antiAliasing + " " + this.gridSize + " " + this.adaptiveDepth + " " + this.colorTolerance
+                + " " + this.jointSamples + " " + this.sampler
+                + " dof " + this.depthOfFiled + " " + this.apertureSize + " " + this.FP_distance
+                + " " + this.APERTURE_NUMBER_OF_POINTS
+                + " adaptive " + this.adaptiveApertureSamples + " " + this.apertureTolerance
+                + " scene " + this.rayTracer.scene.name + " " + sceneDigest(this.rayTracer.scene);
+    }
+
+    /**
+     * Calculates a digest of the content of a scene - its background, its lights, and its geometries with their
+     * emissions and materials
+     *
+     * @param scene the scene
+     * @return the SHA-256 digest of the description of the scene, in hexadecimal
+     */
+    private static String sceneDigest(Scene scene) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 isn't supported", e);
+        }
+
+        digest.update(("background " + scene.background + " ambient " + scene.ambientLight)
+                .getBytes(StandardCharsets.UTF_8));
+        for (LightSource light : scene.lights)
+            digest.update((" light " + light).getBytes(StandardCharsets.UTF_8));
+        digestGeometries(digest, scene.geometries);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Adds the description of a geometry, or of the geometries of a collection, to the digest of a scene
+     *
+     * @param digest   the digest of the scene
+     * @param geometry the geometry or collection
+     */
+    private static void digestGeometries(MessageDigest digest, Intersectable geometry) {
+        if (geometry instanceof Geometries) {
+            digest.update(" {".getBytes(StandardCharsets.UTF_8));
+            for (Intersectable child : ((Geometries) geometry).getGeometries())
+                digestGeometries(digest, child);
+            digest.update(" }".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        String description = " " + geometry;
+        if (geometry instanceof Geometry)
+            description += " " + ((Geometry) geometry).getEmission() + " " + ((Geometry) geometry).getMaterial();
+        digest.update(description.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Describes the coordinates of a point (or a vector)
+     *
+     * @param point the point
+     * @return the coordinates of the point
+     */
+    private static String coordinates(Point point) {
+        return "(" + point.getX() + "," + point.getY() + "," + point.getZ() + ") ";
+    }
+
+    /**
+     * Writes the colors of a tile that were restored from the checkpoint into the image
+     *
+     * @param tile   the tile
+     * @param colors the linear colors of the tile, 3 floats per pixel row after row
+     */
+    private void writeTile(TileRenderer.Tile tile, float[] colors) {
+        int k = 0;
+        for (int i = tile.y0; i < tile.y1; i++)
+            for (int j = tile.x0; j < tile.x1; j++, k += 3)
+                this.imageWriter.writePixel(j, i, new Color(colors[k], colors[k + 1], colors[k + 2]));
+    }
+
+    /**
+     * Sets the checkpoint of the render. The finished tiles are logged with their colors in a checkpoint file
+     * (in the images directory), and a render that was stopped is resumed by a render of the same camera and scene
+     * with the same checkpoint, that renders only the tiles that weren't finished.
+     * The checkpoint file is deleted when the render is finished
+     *
+     * @param checkpointName The name of the checkpoint file, null for a render without a checkpoint.
+     * @param interval       The minimal time in milliseconds between writes of the checkpoint to the storage
+     *                       device, a stopped render loses at most the tiles of the last interval.
+     * @return The camera object itself.
+     */
+    public Camera setCheckpoint(String checkpointName, long interval) {
+        if (interval < 0)
+            throw new IllegalArgumentException("interval must be >= 0");
+
+        this.checkpointName = checkpointName;
+        this.checkpointInterval = interval;
         return this;
     }
 
     /**
-     * We're going to iterate over the pixels in the image, and for each pixel we're going to create thread and cast a ray
-     * from the camera through the pixel, and then we're going to check if the ray intersects with any of the objects in
-     * the scene. If it does, we're going to calculate the color of the pixel based on the intersection point. If it
-     * doesn't, we're going to set the color of the pixel to the background color
+     * Calculates the colors of the pixels of a tile. With anti-aliasing the corners of the pixels are sampled,
+     * row of corners after row of corners, and every corner is shared by the (up to) four pixels around it -
+     * only the two latest rows of corners are kept. A pixel whose corners are alike gets their average,
+     * the others are super sampled by a grid that includes the corners
+     *
+     * @param tile the tile
+     * @param nX   The amount of columns (row width) of the pixels in the image.
+     * @param nY   The amount of rows (column height) of the pixels in the image.
+     * @return the colors of the pixels of the tile, row after row
+     */
+    private Color[] renderTile(TileRenderer.Tile tile, int nX, int nY) {
+        int width = tile.x1 - tile.x0;
+        Color[] pixels = new Color[width * (tile.y1 - tile.y0)];
+        int p = 0;
+        if (antiAliasing && depthOfFiled && this.jointSamples > 0) {
+            for (int i = tile.y0; i < tile.y1; i++)
+                for (int j = tile.x0; j < tile.x1; j++)
+                    pixels[p++] = this.jointPixel(nX, nY, j, i);
+            return pixels;
+        }
+        if (!antiAliasing) {
+            for (int i = tile.y0; i < tile.y1; i++)
+                for (int j = tile.x0; j < tile.x1; j++)
+                    pixels[p++] = this.gBuffer == null
+                            ? this.castRay(nX, nY, j, i, j, i, 0) : this.shadePixel(nX, nY, j, i);
+            return pixels;
+        }
+
+        int cells = 1 << this.adaptiveDepth;
+        Color[] samples = this.adaptiveDepth == 0 ? null : new Color[(cells + 1) * (cells + 1)];
+        Color[] top = this.castCorners(nX, nY, tile.x0, tile.x1, tile.y0);
+        for (int i = tile.y0; i < tile.y1; i++) {
+            Color[] bottom = this.castCorners(nX, nY, tile.x0, tile.x1, i + 1);
+            for (int c = 0; c < width; c++)
+                pixels[p++] = samples == null
+                        ? this.adaptivePixel(nX, nY, tile.x0 + c, i, top[c], top[c + 1], bottom[c], bottom[c + 1])
+                        : this.subdividePixel(nX, nY, tile.x0 + c, i, samples,
+                        top[c], top[c + 1], bottom[c], bottom[c + 1]);
+            top = bottom;
+        }
+        return pixels;
+    }
+
+    /**
+     * Calculates the color of a pixel with both anti-aliasing and depth of field by joint samples - every sample
+     * is a ray through its own point of the pixel and its own point of the aperture, so a few samples cover both.
+     * The points are the first 4 dimensions of the samples of the sampler, so a low discrepancy sampler spreads
+     * them well over the pixel and the aperture together
+     *
+     * @param nX The amount of columns (row width) of the pixels in the image.
+     * @param nY The amount of rows (column height) of the pixels in the image.
+     * @param j  The column of the pixel in the image.
+     * @param i  The row of the pixel in the image.
+     * @return The color of the pixel.
+     */
+    private Color jointPixel(int nX, int nY, int j, int i) {
+        Color pixelColor = Color.BLACK;
+        for (int k = 0; k < this.jointSamples; k++)
+            pixelColor = pixelColor.add(this.castSample(nX, nY, j, i, k));
+        return pixelColor.reduce(this.jointSamples);
+    }
+
+    /**
+     * Rasterizes the primary visibility of the image into the geometry buffer, if hybrid rasterization is on and the
+     * image is sampled at the centers of the pixels - without anti-aliasing and depth of field.
+     * The geometries that can't be rasterized are kept aside, to be traced by the primary rays
+     *
+     * @param nX The amount of columns (row width) of the pixels in the image.
+     * @param nY The amount of rows (column height) of the pixels in the image.
+     */
+    private void rasterize(int nX, int nY) {
+        if (!this.hybridRasterization || this.antiAliasing || (this.depthOfFiled && this.apertureSize != 0))
+            return;
+
+        GBuffer buffer = new GBuffer(this.p0, this.vTo, this.vUp, this.vRight, this.distance, this.width, this.height,
+                nX, nY);
+        List<Intersectable> traced = new ArrayList<>();
+        buffer.rasterize(this.rayTracer.scene.geometries, traced);
+        this.tracedGeometries = new Geometries(traced.toArray(new Intersectable[0]));
+        this.gBuffer = buffer;
+    }
+
+    /**
+     * Calculates the color of a pixel of a rasterized render - the geometry buffer gives the geometry the pixel
+     * sees, its primary ray is intersected with that geometry and with the geometries that weren't rasterized,
+     * and only the shading of the hit is traced. A pixel whose ray misses the geometry of the buffer, on an edge,
+     * is traced as a whole
+     *
+     * @param nX The amount of columns (row width) of the pixels in the image.
+     * @param nY The amount of rows (column height) of the pixels in the image.
+     * @param j  The column of the pixel in the image.
+     * @param i  The row of the pixel in the image.
+     * @return The color of the pixel.
+     */
+    private Color shadePixel(int nX, int nY, int j, int i) {
+        Ray ray = this.constructRay(nX, nY, j, i);
+        Geometry geometry = this.gBuffer.getGeometry(j, i);
+        GeoPoint hit = null;
+        double hitDistance = Double.POSITIVE_INFINITY;
+        if (geometry != null) {
+            hit = geometry.findClosestGeoIntersection(ray);
+            if (hit == null)
+                return this.tracePrimary(ray);
+            hitDistance = hit.point.distance(ray.getP0());
+        }
+
+        GeoPoint traced = this.tracedGeometries.findClosestGeoIntersection(ray, hitDistance);
+        return this.rayTracer.traceHit(ray, traced == null ? hit : traced);
+    }
+
+    /**
+     * Culls the geometries of the scene to the frustum of a tile, if frustum culling is on, so the primary rays
+     * of the tile are tested only against the geometries they may hit. The frustum is of the rays from the center
+     * of the camera, so a tile isn't culled with depth of field, whose rays start all over the aperture
+     *
+     * @param tile the tile
+     * @param nX   The amount of columns (row width) of the pixels in the image.
+     * @param nY   The amount of rows (column height) of the pixels in the image.
+     */
+    private void cullTile(TileRenderer.Tile tile, int nX, int nY) {
+        if (!this.frustumCulling || (this.depthOfFiled && this.apertureSize != 0))
+            return;
+
+        // the edges of the tile - the outer edges of its pixels
+        Point pc = this.p0.add(this.vTo.scale(this.distance));
+        float left = tile.x0 - 0.5f, right = tile.x1 - 0.5f, top = tile.y0 - 0.5f, bottom = tile.y1 - 0.5f;
+        Frustum frustum = new Frustum(this.p0,
+                this.getCenterPoint(nX, nY, left, top, pc).subtract(this.p0),
+                this.getCenterPoint(nX, nY, right, top, pc).subtract(this.p0),
+                this.getCenterPoint(nX, nY, right, bottom, pc).subtract(this.p0),
+                this.getCenterPoint(nX, nY, left, bottom, pc).subtract(this.p0));
+
+        Geometries geometries = this.rayTracer.scene.geometries;
+        Geometries visible = geometries.cull(frustum);
+        int tested = geometries.countBounded();
+        this.cullTested.addAndGet(tested);
+        this.cullCulled.addAndGet(tested - visible.countBounded());
+        this.visibleGeometries.set(visible);
+    }
+
+    /**
+     * Traces a primary ray - a ray from the center of the camera - against the geometries of its tile,
+     * or of the whole scene if the tile isn't culled
+     *
+     * @param ray the ray
+     * @return the color of the ray
+     */
+    private Color tracePrimary(Ray ray) {
+        Geometries visible = this.visibleGeometries.get();
+        return visible == null ? this.rayTracer.traceRay(ray) : this.rayTracer.traceRay(ray, visible);
+    }
+
+    /**
+     * Casts the rays through a row of pixel corners - the corner (c, r) is the top left corner of the pixel (c, r),
+     * and its first sample
+     *
+     * @param nX    The amount of columns (row width) of the pixels in the image.
+     * @param nY    The amount of rows (column height) of the pixels in the image.
+     * @param from  the column of the first corner
+     * @param to    the column of the last corner
+     * @param row   the row of the corners
+     * @return the colors of the corners, from the first to the last
+     */
+    private Color[] castCorners(int nX, int nY, int from, int to, int row) {
+        Color[] corners = new Color[to - from + 1];
+        for (int c = from; c <= to; c++)
+            corners[c - from] = this.castRay(nX, nY, c - 0.5f, row - 0.5f, c, row, 0);
+        return corners;
+    }
+
+    /**
+     * Calculates the color of an anti-aliased pixel from the colors of its corners. If the corners are alike
+     * the pixel is their average, otherwise it is super sampled by a grid of gridSize x gridSize cells whose
+     * vertices are sampled, the corners of the pixel among them. The vertices are weighted by the trapezoidal
+     * rule - a vertex on the edge of the pixel is half of a cell, and a corner is a quarter of a cell
+     *
+     * @param nX          The amount of columns (row width) of the pixels in the image.
+     * @param nY          The amount of rows (column height) of the pixels in the image.
+     * @param j           The column of the pixel in the image.
+     * @param i           The row of the pixel in the image.
+     * @param topLeft     the color of the top left corner of the pixel
+     * @param topRight    the color of the top right corner of the pixel
+     * @param bottomLeft  the color of the bottom left corner of the pixel
+     * @param bottomRight the color of the bottom right corner of the pixel
+     * @return The color of the pixel.
+     */
+    private Color adaptivePixel(int nX, int nY, int j, int i,
+                                Color topLeft, Color topRight, Color bottomLeft, Color bottomRight) {
+        int rgb = topLeft.getRGB();
+        if (topRight.getRGB() == rgb && bottomLeft.getRGB() == rgb && bottomRight.getRGB() == rgb)
+            return topLeft.add(topRight, bottomLeft, bottomRight).reduce(4);
+
+        Color pixelColor = Color.BLACK;
+        for (int row = 0; row <= this.gridSize; row++) {
+            boolean rowEdge = row == 0 || row == this.gridSize;
+            for (int column = 0; column <= this.gridSize; column++) {
+                boolean columnEdge = column == 0 || column == this.gridSize;
+                Color color;
+                if (rowEdge && columnEdge) // a corner of the pixel - it was already sampled
+                    color = row == 0 ? (column == 0 ? topLeft : topRight) : (column == 0 ? bottomLeft : bottomRight);
+                else
+                    color = this.castRay(nX, nY,
+                            j - 0.5f + (float) column / this.gridSize, i - 0.5f + (float) row / this.gridSize,
+                            j, i, 1 + row * (this.gridSize + 1) + column);
+                if (rowEdge)
+                    color = color.reduce(2);
+                if (columnEdge)
+                    color = color.reduce(2);
+                pixelColor = pixelColor.add(color);
+            }
+        }
+        return pixelColor.reduce(this.gridSize * this.gridSize);
+    }
+
+    /**
+     * Calculates the color of an anti-aliased pixel by recursive adaptive super sampling. The pixel is a quad
+     * that is split into four quads, and so on, while the corners of a quad aren't alike and the maximal depth
+     * wasn't reached, so the rays are spent on the edges and a flat pixel takes only its corners.
+     * The samples are vertices of a lattice of 2^depth x 2^depth cells, and a vertex that is shared by some quads
+     * is sampled once
+     *
+     * @param nX          The amount of columns (row width) of the pixels in the image.
+     * @param nY          The amount of rows (column height) of the pixels in the image.
+     * @param j           The column of the pixel in the image.
+     * @param i           The row of the pixel in the image.
+     * @param samples     the buffer of the lattice of the pixel, row after row
+     * @param topLeft     the color of the top left corner of the pixel
+     * @param topRight    the color of the top right corner of the pixel
+     * @param bottomLeft  the color of the bottom left corner of the pixel
+     * @param bottomRight the color of the bottom right corner of the pixel
+     * @return The color of the pixel.
+     */
+    private Color subdividePixel(int nX, int nY, int j, int i, Color[] samples,
+                                 Color topLeft, Color topRight, Color bottomLeft, Color bottomRight) {
+        int cells = 1 << this.adaptiveDepth;
+        Arrays.fill(samples, null);
+        samples[0] = topLeft;
+        samples[cells] = topRight;
+        samples[cells * (cells + 1)] = bottomLeft;
+        samples[samples.length - 1] = bottomRight;
+        return this.subdivide(nX, nY, j, i, samples, 0, 0, cells);
+    }
+
+    /**
+     * Calculates the average color of a quad of a pixel, whose corners were sampled, by splitting it recursively
+     *
+     * @param nX      The amount of columns (row width) of the pixels in the image.
+     * @param nY      The amount of rows (column height) of the pixels in the image.
+     * @param j       The column of the pixel in the image.
+     * @param i       The row of the pixel in the image.
+     * @param samples the buffer of the lattice of the pixel, row after row
+     * @param x       the column of the top left corner of the quad in the lattice
+     * @param y       the row of the top left corner of the quad in the lattice
+     * @param size    the size of the quad in lattice cells
+     * @return the color of the quad
+     */
+    private Color subdivide(int nX, int nY, int j, int i, Color[] samples, int x, int y, int size) {
+        int row = (1 << this.adaptiveDepth) + 1;
+        Color topLeft = samples[y * row + x];
+        Color topRight = samples[y * row + x + size];
+        Color bottomLeft = samples[(y + size) * row + x];
+        Color bottomRight = samples[(y + size) * row + x + size];
+        if (size == 1 || this.alike(topLeft, topRight, bottomLeft, bottomRight))
+            return topLeft.add(topRight, bottomLeft, bottomRight).reduce(4);
+
+        int half = size / 2;
+        this.sample(nX, nY, j, i, samples, x + half, y);
+        this.sample(nX, nY, j, i, samples, x, y + half);
+        this.sample(nX, nY, j, i, samples, x + half, y + half);
+        this.sample(nX, nY, j, i, samples, x + size, y + half);
+        this.sample(nX, nY, j, i, samples, x + half, y + size);
+        return this.subdivide(nX, nY, j, i, samples, x, y, half)
+                .add(this.subdivide(nX, nY, j, i, samples, x + half, y, half),
+                        this.subdivide(nX, nY, j, i, samples, x, y + half, half),
+                        this.subdivide(nX, nY, j, i, samples, x + half, y + half, half))
+                .reduce(4);
+    }
+
+    /**
+     * Samples a vertex of the lattice of a pixel, unless it was already sampled
+     *
+     * @param nX      The amount of columns (row width) of the pixels in the image.
+     * @param nY      The amount of rows (column height) of the pixels in the image.
+     * @param j       The column of the pixel in the image.
+     * @param i       The row of the pixel in the image.
+     * @param samples the buffer of the lattice of the pixel, row after row
+     * @param x       the column of the vertex in the lattice
+     * @param y       the row of the vertex in the lattice
+     */
+    private void sample(int nX, int nY, int j, int i, Color[] samples, int x, int y) {
+        int cells = 1 << this.adaptiveDepth;
+        int k = y * (cells + 1) + x;
+        if (samples[k] == null)
+            samples[k] = this.castRay(nX, nY,
+                    j - 0.5f + (float) x / cells, i - 0.5f + (float) y / cells, j, i, 1 + k);
+    }
+
+    /**
+     * Checks whether the corners of a quad are alike - every component differs by the color tolerance at most
+     *
+     * @param topLeft     the color of the top left corner
+     * @param topRight    the color of the top right corner
+     * @param bottomLeft  the color of the bottom left corner
+     * @param bottomRight the color of the bottom right corner
+     * @return true if the corners are alike
+     */
+    private boolean alike(Color topLeft, Color topRight, Color bottomLeft, Color bottomRight) {
+        return alike(topLeft.getRed(), topRight.getRed(), bottomLeft.getRed(), bottomRight.getRed())
+                && alike(topLeft.getGreen(), topRight.getGreen(), bottomLeft.getGreen(), bottomRight.getGreen())
+                && alike(topLeft.getBlue(), topRight.getBlue(), bottomLeft.getBlue(), bottomRight.getBlue());
+    }
+
+    /**
+     * Checks whether four values of a color component differ by the color tolerance at most
+     *
+     * @param a the first value
+     * @param b the second value
+     * @param c the third value
+     * @param d the fourth value
+     * @return true if the values are alike
+     */
+    private boolean alike(double a, double b, double c, double d) {
+        return Math.max(Math.max(a, b), Math.max(c, d)) - Math.min(Math.min(a, b), Math.min(c, d)) <= this.colorTolerance;
+    }
+
+    /**
+     * Renders the image progressively - in passes, each of them adds a sample to every pixel that hasn't converged.
+     * A sample is a ray through a point of the pixel (and of the aperture, with depth of field) of the sampler, and
+     * every pixel keeps the running mean and variance of its samples (by Welford's algorithm).
+     * A pixel that took at least 4 samples stops sampling when the standard error of its mean luminance is
+     * below the tolerance, so smooth areas of the image converge after a few passes while edges, soft shadows and
+     * blurred areas keep sampling. The image is written after every pass, so the pass listener can save it.
+     * With a time budget, the render stops refining at the deadline - the first pass is always finished,
+     * so the image is complete, and the pass that is in progress at the deadline skips its remaining tiles
      *
      * @return The camera itself.
      */
-    public Camera renderImageThreaded() {
+    public Camera renderImageProgressive() {
         try {
             this.checkImgWriter();
             this.checkRayTracer();
         } catch (MissingResourceException e) {
             throw new UnsupportedOperationException("Render didn't receive " + e.getClassName());
         }
+        if (this.imageWriter.isStreaming())
+            throw new UnsupportedOperationException("A progressive render rewrites the pixels in every pass, it can't be streamed");
 
         final int nX = this.imageWriter.getNx();
         final int nY = this.imageWriter.getNy();
 
-        IntStream.range(0, nX).parallel().forEach(i -> {
-            IntStream.range(0, nY).parallel().forEach(j -> {
-                if (antiAliasing && adaptiveGrid(nX, nY, j, i))
-                    this.imageWriter.writePixel(j, i, this.fragmentPixelToGrid(i, j));
-                else
-                    this.imageWriter.writePixel(j, i, this.castRay(this.imageWriter.getNx(), this.imageWriter.getNy(), j, i));
+        // the running statistics of the pixels - the mean color, and the count and sum of squared differences
+        // of the luminance of the samples
+        double[] mean = new double[nX * nY * 3];
+        double[] m2 = new double[nX * nY];
+        int[] count = new int[nX * nY];
+        boolean[] converged = new boolean[nX * nY];
+
+        final long deadline = this.timeBudget > 0 ? this.clock.getAsLong() + this.timeBudget * 1_000_000 : Long.MAX_VALUE;
+        this.cullTested.set(0);
+        this.cullCulled.set(0);
+
+        TileRenderer tileRenderer = new TileRenderer(nX, nY, this.tileSize, this.threadsCount);
+        for (int pass = 1; pass <= this.maxPasses; pass++) {
+            final boolean firstPass = pass == 1;
+            AtomicInteger active = new AtomicInteger();
+            tileRenderer.render(tile -> {
+                // the refining stops at the deadline, but the first pass completes the image
+                if (!firstPass && this.clock.getAsLong() - deadline >= 0)
+                    return;
+
+                int tileActive = 0;
+                this.cullTile(tile, nX, nY);
+                try {
+                    for (int i = tile.y0; i < tile.y1; i++)
+                        for (int j = tile.x0; j < tile.x1; j++) {
+                            int k = i * nX + j;
+                            if (converged[k])
+                                continue;
+
+                            Color sample = this.castSample(nX, nY, j, i, count[k]);
+                            int n = ++count[k];
+                            double luminance = luminance(mean[3 * k], mean[3 * k + 1], mean[3 * k + 2]);
+                            mean[3 * k] += (sample.getRed() - mean[3 * k]) / n;
+                            mean[3 * k + 1] += (sample.getGreen() - mean[3 * k + 1]) / n;
+                            mean[3 * k + 2] += (sample.getBlue() - mean[3 * k + 2]) / n;
+                            double sampleLuminance = luminance(sample.getRed(), sample.getGreen(), sample.getBlue());
+                            m2[k] += (sampleLuminance - luminance)
+                                    * (sampleLuminance - luminance(mean[3 * k], mean[3 * k + 1], mean[3 * k + 2]));
+
+                            this.imageWriter.writePixel(j, i, new Color(mean[3 * k], mean[3 * k + 1], mean[3 * k + 2]));
+
+                            // the standard error of the mean is sqrt(variance / n)
+                            if (n >= MIN_PROGRESSIVE_SAMPLES && m2[k] / (n - 1) / n <= this.tolerance * this.tolerance)
+                                converged[k] = true;
+                            else
+                                tileActive++;
+                        }
+                } finally {
+                    this.visibleGeometries.remove();
+                }
+                active.addAndGet(tileActive);
             });
-        });
 
+            if (this.passListener != null)
+                this.passListener.accept(pass);
+            if (active.get() == 0 || this.clock.getAsLong() - deadline >= 0)
+                break;
+        }
+
+        return this;
+    }
+
+    /**
+     * Calculates the luminance of a color
+     *
+     * @param r the red component
+     * @param g the green component
+     * @param b the blue component
+     * @return the luminance, by the weights of the components in the human perception
+     */
+    private static double luminance(double r, double g, double b) {
+        return 0.2126 * r + 0.7152 * g + 0.0722 * b;
+    }
+
+    /**
+     * Traces a sample of a pixel of the sampler - through its point of the pixel, and through its point
+     * of the aperture if there is depth of field, or through the center of the camera otherwise
+     *
+     * @param nX    The amount of columns (row width) of the pixel in the image.
+     * @param nY    The amount of rows (column height) of the pixel in the image.
+     * @param j     The column of the pixel in the image.
+     * @param i     The row of the pixel in the image.
+     * @param index The index of the sample in the pixel.
+     * @return The color of the sample.
+     */
+    private Color castSample(int nX, int nY, int j, int i, long index) {
+        Ray ray = this.constructRay(nX, nY, j + (float) this.sampler.get(j, i, index, 0) - 0.5f,
+                i + (float) this.sampler.get(j, i, index, 1) - 0.5f);
+        if (!depthOfFiled || this.apertureSize == 0)
+            return this.tracePrimary(ray);
+
+        Point focalPoint = this.FOCAL_PLANE.findGeoIntersections(ray).get(0).point;
+        Point aperturePoint = this.offsetAperture(this.p0,
+                (this.sampler.get(j, i, index, 2) * 2 - 1) * this.apertureSize,
+                (this.sampler.get(j, i, index, 3) * 2 - 1) * this.apertureSize);
+        return this.traceAperture(aperturePoint, focalPoint);
+    }
+
+    /**
+     * Moves a point in the plane of the aperture
+     *
+     * @param point the point
+     * @param x     the distance to the right
+     * @param y     the distance up
+     * @return the moved point
+     */
+    private Point offsetAperture(Point point, double x, double y) {
+        if (!isZero(x)) point = point.add(this.vRight.scale(x));
+        if (!isZero(y)) point = point.add(this.vUp.scale(y));
+        return point;
+    }
+
+    /**
+     * Sets the quality target of a progressive render
+     *
+     * @param maxPasses The maximal amount of passes - the most samples a pixel takes.
+     * @param tolerance The standard error of the luminance of a pixel (in color units) below which it converged.
+     * @return The camera object itself.
+     */
+    public Camera setProgressive(int maxPasses, double tolerance) {
+        if (maxPasses <= 0)
+            throw new IllegalArgumentException("max passes must be > 0");
+        if (tolerance < 0)
+            throw new IllegalArgumentException("tolerance must be >= 0");
+
+        this.maxPasses = maxPasses;
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Sets the wall clock time budget of a progressive render - the render keeps refining the image until the
+     * deadline (or until all the pixels converged, or the maximal amount of passes), and returns with the best
+     * image it has. For the best image in the budget, set a large maximal amount of passes and a tolerance of 0
+     *
+     * @param timeBudget The time budget in milliseconds, 0 for a render without a budget.
+     * @return The camera object itself.
+     */
+    public Camera setTimeBudget(long timeBudget) {
+        if (timeBudget < 0)
+            throw new IllegalArgumentException("time budget must be >= 0");
+
+        this.timeBudget = timeBudget;
+        return this;
+    }
+
+    /**
+     * Sets the clock the time budget is measured by, so a test controls the passing of time
+     *
+     * @param clock The clock, in nanoseconds.
+     * @return The camera object itself.
+     */
+    Camera setClock(LongSupplier clock) {
+        if (clock == null)
+            throw new IllegalArgumentException("clock must not be null");
+
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * Sets the listener of the passes of a progressive render, that is called after every pass with its number
+     * (from 1), when the intermediate image is in the image writer - e.g. for saving it by {@link #writeToImage()}
+     *
+     * @param passListener The listener, null for none.
+     * @return The camera object itself.
+     */
+    public Camera setPassListener(IntConsumer passListener) {
+        this.passListener = passListener;
+        return this;
+    }
+
+    /**
+     * Sets the amount of worker threads of the threaded rendering
+     *
+     * @param threadsCount The amount of worker threads.
+     * @return The camera object itself.
+     */
+    public Camera setMultithreading(int threadsCount) {
+        if (threadsCount <= 0)
+            throw new IllegalArgumentException("threads count must be > 0");
+
+        this.threadsCount = threadsCount;
+        return this;
+    }
+
+    /**
+     * Sets the size of the tiles the image is rendered in.
+     * Small tiles balance the load between the threads better, large tiles keep each thread in one part of the scene
+     *
+     * @param tileSize The width and height of a tile in pixels.
+     * @return The camera object itself.
+     */
+    public Camera setTileSize(int tileSize) {
+        if (tileSize <= 0)
+            throw new IllegalArgumentException("tile size must be > 0");
+
+        this.tileSize = tileSize;
         return this;
     }
 
@@ -345,45 +1232,26 @@ public class Camera {
     }
 
     /**
-     * The function checks if the color of the pixel is the same as the color of the pixel in the top left, top right,
-     * bottom left and bottom right corners of the pixel
-     *
-     * @param nX number of pixels in the view plane
-     * @param nY number of pixels in the view plane
-     * @param j  the current column
-     * @param i  the row of the pixel
-     * @return a boolean value.
-     */
-    private boolean adaptiveGrid(int nX, int nY, int j, int i) {
-
-        Point pc = this.p0.add(this.vTo.scale(this.distance));
-        Point pij = getCenterPoint(nX, nY, j, i, pc);
-        Color topLeft, topRight, bottomLeft, bottomRight;
-        double ry = alignZero(this.height / nY);
-        double rx = alignZero(this.width / nX);
-
-        topLeft = castRay((int) (pij.getX() + -rx / 2), (int) (pij.getY() + ry / 2), j, i);
-        topRight = castRay((int) (pij.getX() + rx / 2), (int) (pij.getY() + ry / 2), j, i);
-        bottomLeft = castRay((int) (pij.getX() + -rx / 2), (int) (pij.getY() + -ry / 2), j, i);
-        bottomRight = castRay((int) (pij.getX() + rx / 2), (int) (pij.getY() + -ry / 2), j, i);
-        return topLeft.equals(topRight) && topLeft.equals(bottomLeft) && topLeft.equals(bottomRight);
-    }
-
-    /**
-     * Given a pixel's coordinates, construct a ray and trace it through the scene
+     * Given a point's coordinates on the view plane, construct a ray and trace it through the scene.
+     * The pixel the point is a sample of and the index of the sample in the pixel are the keys of the sampler
+     * of the aperture, with depth of field
      *
-     * @param nX The amount of columns (row width) of the pixel in the image.
-     * @param nY The amount of rows (column height) of the pixel in the image.
-     * @param j  The column of the pixel in the image.
-     * @param i  The row of the pixel in the image.
-     * @return The color of the pixel.
+     * @param nX     The amount of columns (row width) of the pixel in the image.
+     * @param nY     The amount of rows (column height) of the pixel in the image.
+     * @param j      The column of the point in the image.
+     * @param i      The row of the point in the image.
+     * @param pixelJ The column of the pixel of the sample.
+     * @param pixelI The row of the pixel of the sample.
+     * @param sample The index of the sample in the pixel - 0 for its center, or for its top left corner
+     *               with anti-aliasing, and from 1 for the samples inside it.
+     * @return The color of the point.
      */
-    private Color castRay(int nX, int nY, float j, float i) {
+    private Color castRay(int nX, int nY, float j, float i, int pixelJ, int pixelI, int sample) {
         Ray ray = this.constructRay(nX, nY, j, i);
         if (depthOfFiled) // if there is the improvement of depth of filed
-            return averagedBeamColor(ray);
+            return averagedBeamColor(ray, pixelJ, pixelI, sample);
 
-        return this.rayTracer.traceRay(ray);
+        return this.tracePrimary(ray);
     }
 
     /**
@@ -488,31 +1356,36 @@ public class Camera {
     /**
      * > Sets the grid size of the camera
      *
-     * @param gridSize The size of the grid in pixels.
+     * @param gridSize The amount of cells of the super sampling grid by width and by height.
      * @return The camera object itself.
+     * @throws IllegalArgumentException if the grid size isn't positive
      */
     public Camera setGridSize(int gridSize) {
+        if (gridSize < 1)
+            throw new IllegalArgumentException("The grid size must be positive");
         this.gridSize = gridSize;
         return this;
     }
 
     /**
-     * It takes a pixel and divides it into a grid of smaller pixels, and then casts a ray through each of the smaller
-     * pixels and averages the color of the smaller pixels to get the color of the original pixel
+     * Turns on the recursive adaptive super sampling of anti-aliasing instead of the uniform grid. A pixel is split
+     * into quads recursively, as long as the corners of a quad aren't alike, up to the maximal depth
      *
-     * @param i the x coordinate of the pixel
-     * @param j the x coordinate of the pixel
-     * @return The color of the pixel.
+     * @param maxDepth  The maximal depth of the splits - a pixel takes up to (2^maxDepth + 1)^2 samples,
+     *                  0 for the uniform grid.
+     * @param tolerance The largest difference of a color component between the corners of a quad that aren't split.
+     * @return The camera object itself.
+     * @throws IllegalArgumentException if the depth is negative or too large, or the tolerance is negative
      */
-    private Color fragmentPixelToGrid(int i, int j) {
-        double grid = 1.0 / this.gridSize;
-        Color pixelColor = Color.BLACK;
-
-        for (float fragmentI = i; fragmentI < i + 1.0f; fragmentI += grid)
-            for (float fragmentJ = j; fragmentJ < j + 1.0f; fragmentJ += grid)
-                pixelColor = pixelColor.add(this.castRay(this.imageWriter.getNx(), this.imageWriter.getNy(), fragmentJ, fragmentI));
-
-        return pixelColor.reduce(this.gridSize * this.gridSize);
+    public Camera setAdaptiveSupersampling(int maxDepth, double tolerance) {
+        if (maxDepth < 0 || maxDepth > 8)
+            throw new IllegalArgumentException("max depth must be between 0 and 8");
+        if (tolerance < 0)
+            throw new IllegalArgumentException("tolerance must be >= 0");
+
+        this.adaptiveDepth = maxDepth;
+        this.colorTolerance = tolerance;
+        return this;
     }
 
 
@@ -556,15 +1429,134 @@ public class Camera {
     }
 
     /**
-     * The function initializes the aperture points array by calculating the distance between the points and the initial
-     * point, and then initializing the array with the points
+     * Turns on the joint sampling of anti-aliasing and depth of field. Instead of sampling every point of the pixel
+     * by the whole aperture, every sample of the pixel is a ray through its own (stratified) point of the pixel
+     * and its own point of the aperture, both of the sampler
+     *
+     * @param samples The amount of samples of a pixel, 0 to turn the joint sampling off.
+     * @return The camera object itself.
+     * @throws IllegalArgumentException if the amount of samples is negative
+     */
+    public Camera setJointSampling(int samples) {
+        if (samples < 0)
+            throw new IllegalArgumentException("samples must be >= 0");
+        this.jointSamples = samples;
+        return this;
+    }
+
+    /**
+     * Turns hybrid rasterization on or off. With it, the primary visibility of a render that samples the centers of
+     * the pixels (without anti-aliasing and depth of field) is rasterized into a geometry buffer - triangles and
+     * polygons by their edges and spheres as impostors - and the ray tracer only shades the hits, tracing their
+     * shadow, reflection and refraction rays. Geometries that can't be rasterized, such as planes, are still traced
+     *
+     * @param hybridRasterization Whether to rasterize the primary visibility.
+     * @return The camera object itself.
+     */
+    public Camera setHybridRasterization(boolean hybridRasterization) {
+        this.hybridRasterization = hybridRasterization;
+        return this;
+    }
+
+    /**
+     * Turns frustum culling on or off. With culling, the geometries of the scene are culled to the frustum of
+     * every tile before it is rendered, and the primary rays of the tile are tested only against the geometries
+     * that weren't culled; the rays of shadows, reflections and refractions are tested against the whole scene.
+     * Culling pays off when every tile sees a small part of a big scene, and it is skipped with depth of field
+     *
+     * @param frustumCulling Whether to cull the geometries of every tile.
+     * @return The camera object itself.
+     */
+    public Camera setFrustumCulling(boolean frustumCulling) {
+        this.frustumCulling = frustumCulling;
+        return this;
+    }
+
+    /**
+     * Returns the amount of bounded geometries that were culled from the tiles of the last render,
+     * summed over the tiles
+     *
+     * @return the amount of culled geometries
+     */
+    public long getCulledCount() {
+        return this.cullCulled.get();
+    }
+
+    /**
+     * Returns the cull rate of the last render - the part of the bounded geometries that were culled from the tiles,
+     * over all the tiles
+     *
+     * @return the cull rate, from 0 (nothing was culled, or the render wasn't culled) to 1
+     */
+    public double getCullRate() {
+        long tested = this.cullTested.get();
+        return tested == 0 ? 0 : (double) this.cullCulled.get() / tested;
+    }
+
+    /**
+     * Sets the sampler of the points of the pixels and of the aperture - of the joint samples, the progressive render
+     * and the points in the cells of the aperture grid. The default is a Halton sampler with the seed 0, so every
+     * render of a scene is the same image - set a sampler with another seed for another noise pattern
+     *
+     * @param sampler The sampler.
+     * @return The camera object itself.
+     * @throws IllegalArgumentException if the sampler is null
+     */
+    public Camera setSampler(Sampler sampler) {
+        if (sampler == null)
+            throw new IllegalArgumentException("sampler must not be null");
+        this.sampler = sampler;
+        return this;
+    }
+
+    /**
+     * Turns on (or off) the adaptive sampling of the aperture for depth of field. Every pixel is sampled first by the
+     * probe rays - through the center and the four corner points of the aperture. If they are alike, as they are
+     * in focus or over a flat area, the pixel is their average; otherwise the pixel is the average of the center probe
+     * and of all the points of the adaptive aperture grid, reusing the corner probes. The aperture grid of the
+     * non-adaptive sampling isn't changed
+     *
+     * @param samples   The amount of points of the aperture that sample a pixel whose probes differ - rounded down
+     *                  to a square, at least 4; or 0 to turn the adaptive sampling off.
+     * @param tolerance The largest difference of a color component between probe rays that are alike.
+     * @return The camera object itself.
+     * @throws IllegalArgumentException if there are 1 to 3 samples or the tolerance is negative
+     */
+    public Camera setAdaptiveAperture(int samples, double tolerance) {
+        if (samples != 0 && samples < 4)
+            throw new IllegalArgumentException("samples must be >= 4, or 0 to turn the adaptive sampling off");
+        if (tolerance < 0)
+            throw new IllegalArgumentException("tolerance must be >= 0");
+
+        this.adaptiveApertureSamples = samples;
+        this.apertureTolerance = tolerance;
+        if (this.apertureSize != 0) initializeAperturePoint();
+        return this;
+    }
+
+    /**
+     * The function initializes the aperture points arrays - of the non-adaptive sampling, and of the adaptive sampling
+     * if it is turned on
      */
     private void initializeAperturePoint() {
+        this.aperturePoints = apertureGrid(this.APERTURE_NUMBER_OF_POINTS);
+        this.adaptiveAperturePoints = this.adaptiveApertureSamples == 0 ? null
+                : apertureGrid(this.adaptiveApertureSamples);
+    }
+
+    /**
+     * The function creates the points array of an aperture grid by calculating the distance between the points and
+     * the initial point, and then initializing the array with the points
+     *
+     * @param numberOfPoints the amount of points of the grid, rounded down to a square
+     * @return the points of the grid
+     */
+    private Point[] apertureGrid(int numberOfPoints) {
         //the number of points in a row
-        int pointsInRow = (int) sqrt(this.APERTURE_NUMBER_OF_POINTS);
+        int pointsInRow = (int) sqrt(numberOfPoints);
 
         //the array of point saved as an array
-        this.aperturePoints = new Point[pointsInRow * pointsInRow];
+        Point[] points = new Point[pointsInRow * pointsInRow];
 
         //calculating the initial values.
         double pointsDistance = (this.apertureSize * 2) / pointsInRow;
@@ -576,29 +1568,103 @@ public class Camera {
         //initializing the points array
         for (int i = 1; i <= pointsInRow; i++) {
             for (int j = 1; j <= pointsInRow; j++) {
-                this.aperturePoints[(i - 1) + (j - 1) * pointsInRow] = initialPoint
+                points[(i - 1) + (j - 1) * pointsInRow] = initialPoint
                         .add(this.vUp.scale(i * pointsDistance).add(this.vRight.scale(j * pointsDistance)));
             }
         }
+        return points;
     }
 
     /**
      * It takes a ray, finds the point where it intersects the focal plane, and then shoots rays from the aperture points
-     * to that point. It then averages the colors of all the rays
+     * to that point. It then averages the colors of all the rays. Every ray goes through a point of the sampler
+     * in its cell of the aperture grid, so the grid doesn't alias
      *
-     * @param ray The ray that is being traced.
+     * @param ray    The ray that is being traced.
+     * @param j      The column of the pixel of the ray in the image.
+     * @param i      The row of the pixel of the ray in the image.
+     * @param sample The index of the sample of the ray in the pixel, whose aperture points take their own run of
+     *               indices of the sampler.
      * @return The average color of the image.
      */
-    private Color averagedBeamColor(Ray ray) {
+    private Color averagedBeamColor(Ray ray, int j, int i, int sample) {
         Color averageColor = Color.BLACK, apertureColor;
-        int numOfPoints = this.aperturePoints.length;
-        Ray apertureRay;
+        boolean adaptive = this.adaptiveApertureSamples != 0;
+        Point[] grid = adaptive ? this.adaptiveAperturePoints : this.aperturePoints;
+        int numOfPoints = grid.length;
+        int numOfSamples = numOfPoints;
         Point focalPoint = this.FOCAL_PLANE.findGeoIntersections(ray).get(0).point;
-        for (Point aperturePoint : this.aperturePoints) {
-            apertureRay = new Ray(aperturePoint, focalPoint.subtract(aperturePoint));
-            apertureColor = rayTracer.traceRay(apertureRay);
-            averageColor = averageColor.add(apertureColor.reduce(numOfPoints));
+
+        // the corners of the aperture, when it is sampled adaptively
+        int pointsInRow = (int) sqrt(numOfPoints);
+        double cellSize = this.apertureSize * 2 / pointsInRow;
+        long first = (long) sample * numOfPoints;
+        int[] corners = {0, pointsInRow - 1, numOfPoints - pointsInRow, numOfPoints - 1};
+        Color[] probes = null;
+        if (adaptive) {
+            probes = new Color[corners.length];
+            for (int k = 0; k < corners.length; k++)
+                probes[k] = this.traceAperture(this.jitterAperture(grid, corners[k], cellSize, j, i, first), focalPoint);
+            Color center = this.rayTracer.traceRay(ray);
+            if (this.probesAlike(center, probes))
+                return center.add(probes).reduce(corners.length + 1);
+
+            // the center probe is a sample of the refined pixel as well
+            numOfSamples++;
+            averageColor = center.reduce(numOfSamples);
+        }
+
+        for (int k = 0, corner = 0; k < numOfPoints; k++) {
+            if (probes != null && corner < corners.length && k == corners[corner])
+                apertureColor = probes[corner++];
+            else
+                apertureColor = this.traceAperture(this.jitterAperture(grid, k, cellSize, j, i, first), focalPoint);
+            averageColor = averageColor.add(apertureColor.reduce(numOfSamples));
         }
         return averageColor;
     }
+
+    /**
+     * Finds the point of the sampler in a cell of the aperture grid
+     *
+     * @param grid     the points of the aperture grid
+     * @param k        the index of the cell
+     * @param cellSize the size of the cells
+     * @param j        the column of the pixel
+     * @param i        the row of the pixel
+     * @param first    the index of the sampler of the first cell of the sample of the pixel
+     * @return the point of the cell
+     */
+    private Point jitterAperture(Point[] grid, int k, double cellSize, int j, int i, long first) {
+        return this.offsetAperture(grid[k], (this.sampler.get(j, i, first + k, 2) - 0.5) * cellSize,
+                (this.sampler.get(j, i, first + k, 3) - 0.5) * cellSize);
+    }
+
+    /**
+     * Traces a ray from a point of the aperture through the focal point of a pixel
+     *
+     * @param aperturePoint the point of the aperture
+     * @param focalPoint    the point of the focal plane the rays of the pixel meet at
+     * @return the color of the ray
+     */
+    private Color traceAperture(Point aperturePoint, Point focalPoint) {
+        return rayTracer.traceRay(new Ray(aperturePoint, focalPoint.subtract(aperturePoint)));
+    }
+
+    /**
+     * Checks whether the probe rays of the aperture are alike - every component of every corner probe differs from
+     * the center probe by the aperture tolerance at most
+     *
+     * @param center the color of the center probe
+     * @param probes the colors of the corner probes
+     * @return true if the probes are alike
+     */
+    private boolean probesAlike(Color center, Color[] probes) {
+        for (Color probe : probes)
+            if (Math.abs(probe.getRed() - center.getRed()) > this.apertureTolerance
+                    || Math.abs(probe.getGreen() - center.getGreen()) > this.apertureTolerance
+                    || Math.abs(probe.getBlue() - center.getBlue()) > this.apertureTolerance)
+                return false;
+        return true;
+    }
 }
\ No newline at end of file
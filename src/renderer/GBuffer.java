@@ -0,0 +1,297 @@
+package renderer;
+
+import geometries.*;
+import primitives.*;
+import primitives.Vector;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A geometry buffer of the primary visibility of an image - the geometry every pixel center sees first, found by
+ * rasterizing the geometries into a depth buffer instead of tracing a ray per pixel.
+ * <p>
+ * Triangles and convex polygons are projected to the image and scanned by their edge functions, and spheres are
+ * drawn as impostors - the rectangle the sphere projects into is scanned and every pixel solves the ray-sphere
+ * equation. Geometries that can't be rasterized (unbounded geometries, and polygons that cross the plane of the
+ * camera) are left to be traced. The depth of a pixel is the distance along the unnormalized direction of its
+ * primary ray, so the depths of a pixel are comparable to each other. The edges are scanned with a tolerance,
+ * so a pixel on an edge may get a geometry its ray just misses, and it must be traced
+ */
+class GBuffer {
+    /**
+     * The tolerance of the edges in pixels - a pixel center that is this close outside a triangle is covered
+     */
+    private static final double EDGE_TOLERANCE = 0.01;
+
+    /**
+     * The smallest depth of a vertex in front of the camera (along the direction to the view plane)
+     * that is projected
+     */
+    private static final double NEAR = 1e-9;
+
+    /**
+     * The amount of columns of the image
+     */
+    private final int nX;
+    /**
+     * The amount of rows of the image
+     */
+    private final int nY;
+
+    /**
+     * The center of the camera
+     */
+    private final Point p0;
+    /**
+     * The direction of the camera to the view plane, the up and the right directions of the camera
+     */
+    private final Vector vTo, vUp, vRight;
+    /**
+     * The distance of the view plane
+     */
+    private final double distance;
+    /**
+     * The width and height of a pixel on the view plane
+     */
+    private final double pixelWidth, pixelHeight;
+
+    /**
+     * The unnormalized direction of the ray of the top left pixel, and the steps of the direction
+     * to the pixel to the right and to the pixel below
+     */
+    private final Vector base, right, down;
+
+    /**
+     * The geometry that every pixel sees first, row after row, null where none was rasterized
+     */
+    private final Geometry[] geometries;
+    /**
+     * The depth of the geometry every pixel sees, row after row
+     */
+    private final double[] depths;
+
+    /**
+     * Constructor to initialize an empty buffer of an image of a camera
+     *
+     * @param p0       the center of the camera
+     * @param vTo      the direction of the camera to the view plane
+     * @param vUp      the up direction of the camera
+     * @param vRight   the right direction of the camera
+     * @param distance the distance of the view plane
+     * @param width    the width of the view plane
+     * @param height   the height of the view plane
+     * @param nX       the amount of columns of the image
+     * @param nY       the amount of rows of the image
+     */
+    GBuffer(Point p0, Vector vTo, Vector vUp, Vector vRight, double distance, double width, double height,
+            int nX, int nY) {
+        this.p0 = p0;
+        this.vTo = vTo;
+        this.vUp = vUp;
+        this.vRight = vRight;
+        this.distance = distance;
+        this.pixelWidth = width / nX;
+        this.pixelHeight = height / nY;
+        this.nX = nX;
+        this.nY = nY;
+        this.geometries = new Geometry[nX * nY];
+        this.depths = new double[nX * nY];
+        Arrays.fill(this.depths, Double.POSITIVE_INFINITY);
+
+        // the direction of the ray of pixel (j, i) is base + j * right + i * down
+        double left = -(nX - 1) / 2.0 * this.pixelWidth, top = (nY - 1) / 2.0 * this.pixelHeight;
+        this.base = vTo.scale(distance).add(vRight.scale(left)).add(vUp.scale(top));
+        this.right = vRight.scale(this.pixelWidth);
+        this.down = vUp.scale(-this.pixelHeight);
+    }
+
+    /**
+     * Returns the geometry a pixel sees first
+     *
+     * @param j the column of the pixel
+     * @param i the row of the pixel
+     * @return the geometry, null if no rasterized geometry covers the pixel
+     */
+    Geometry getGeometry(int j, int i) {
+        return this.geometries[i * nX + j];
+    }
+
+    /**
+     * Rasterizes a geometry, or the geometries of a collection, into the buffer
+     *
+     * @param geometry the geometry or collection
+     * @param traced   the list to add the geometries that can't be rasterized to
+     */
+    void rasterize(Intersectable geometry, List<Intersectable> traced) {
+        if (geometry instanceof Geometries) {
+            for (Intersectable child : ((Geometries) geometry).getGeometries())
+                this.rasterize(child, traced);
+            return;
+        }
+
+        boolean rasterized = false;
+        if (geometry instanceof Sphere)
+            rasterized = this.rasterizeSphere((Sphere) geometry);
+        else if (geometry instanceof Polygon)
+            rasterized = this.rasterizePolygon((Polygon) geometry);
+
+        if (!rasterized)
+            traced.add(geometry);
+    }
+
+    /**
+     * Rasterizes a convex polygon (or a triangle) as a fan of triangles
+     *
+     * @param polygon the polygon
+     * @return false if the polygon crosses the plane of the camera and has to be traced
+     */
+    private boolean rasterizePolygon(Polygon polygon) {
+        List<Point> vertices = polygon.getVertices();
+        int count = vertices.size();
+        double[] j = new double[count], i = new double[count];
+        for (int k = 0; k < count; k++) {
+            if (vertices.get(k).equals(this.p0))
+                return false;
+            Vector d = vertices.get(k).subtract(this.p0);
+            double z = d.dotProduct(this.vTo);
+            if (z < NEAR)
+                return false;
+            j[k] = d.dotProduct(this.vRight) * this.distance / z / this.pixelWidth + (nX - 1) / 2.0;
+            i[k] = -d.dotProduct(this.vUp) * this.distance / z / this.pixelHeight + (nY - 1) / 2.0;
+        }
+
+        // the plane of the polygon - the depth of a pixel is n.(v0 - p0) / n.D
+        Vector normal = polygon.getNormal(vertices.get(0));
+        double numerator = normal.dotProduct(vertices.get(0).subtract(this.p0));
+        for (int k = 1; k < count - 1; k++)
+            this.scanTriangle(polygon, j[0], i[0], j[k], i[k], j[k + 1], i[k + 1], normal, numerator);
+        return true;
+    }
+
+    /**
+     * Scans a projected triangle of a polygon, and writes it into the pixels whose centers it covers
+     * where it is nearer than the geometry they saw
+     *
+     * @param polygon   the polygon of the triangle
+     * @param j0        the column of the first vertex
+     * @param i0        the row of the first vertex
+     * @param j1        the column of the second vertex
+     * @param i1        the row of the second vertex
+     * @param j2        the column of the third vertex
+     * @param i2        the row of the third vertex
+     * @param normal    the normal of the polygon
+     * @param numerator the dot product of the normal and the vector from the camera to the polygon
+     */
+    private void scanTriangle(Polygon polygon, double j0, double i0, double j1, double i1, double j2, double i2,
+                              Vector normal, double numerator) {
+        double area = (j1 - j0) * (i2 - i0) - (i1 - i0) * (j2 - j0);
+        if (area == 0)
+            return; // seen edge on
+        double sign = Math.signum(area);
+        // the tolerance of the edge functions - the tolerance in pixels scaled by the lengths of the edges
+        double tolerance0 = EDGE_TOLERANCE * Math.hypot(j2 - j1, i2 - i1);
+        double tolerance1 = EDGE_TOLERANCE * Math.hypot(j0 - j2, i0 - i2);
+        double tolerance2 = EDGE_TOLERANCE * Math.hypot(j1 - j0, i1 - i0);
+
+        // the denominator of the depth, n.D, is linear in the pixel
+        double denominator0 = normal.dotProduct(this.base);
+        double denominatorJ = normal.dotProduct(this.right), denominatorI = normal.dotProduct(this.down);
+
+        int minJ = Math.max(0, (int) Math.ceil(Math.min(j0, Math.min(j1, j2)) - EDGE_TOLERANCE));
+        int maxJ = Math.min(nX - 1, (int) Math.floor(Math.max(j0, Math.max(j1, j2)) + EDGE_TOLERANCE));
+        int minI = Math.max(0, (int) Math.ceil(Math.min(i0, Math.min(i1, i2)) - EDGE_TOLERANCE));
+        int maxI = Math.min(nY - 1, (int) Math.floor(Math.max(i0, Math.max(i1, i2)) + EDGE_TOLERANCE));
+        for (int i = minI; i <= maxI; i++)
+            for (int j = minJ; j <= maxJ; j++) {
+                double e0 = sign * ((j2 - j1) * (i - i1) - (i2 - i1) * (j - j1));
+                double e1 = sign * ((j0 - j2) * (i - i2) - (i0 - i2) * (j - j2));
+                double e2 = sign * ((j1 - j0) * (i - i0) - (i1 - i0) * (j - j0));
+                if (e0 < -tolerance0 || e1 < -tolerance1 || e2 < -tolerance2)
+                    continue;
+
+                double denominator = denominator0 + j * denominatorJ + i * denominatorI;
+                if (denominator == 0)
+                    continue;
+                this.write(j, i, polygon, numerator / denominator);
+            }
+    }
+
+    /**
+     * Rasterizes a sphere as an impostor - scans the rectangle its bounding box projects into, and solves the
+     * ray-sphere equation of every pixel. Like the edges of a triangle, the silhouette is covered with a tolerance,
+     * so a pixel whose ray grazes the sphere gets it even where the equation rounds to a miss
+     *
+     * @param sphere the sphere
+     * @return false if the sphere reaches the plane of the camera and has to be traced
+     */
+    private boolean rasterizeSphere(Sphere sphere) {
+        Point center = sphere.getCenter();
+        double radius = sphere.getRadius();
+        double minJ = Double.POSITIVE_INFINITY, maxJ = Double.NEGATIVE_INFINITY;
+        double minI = Double.POSITIVE_INFINITY, maxI = Double.NEGATIVE_INFINITY;
+        for (int corner = 0; corner < 8; corner++) {
+            Point point = new Point(center.getX() + ((corner & 1) == 0 ? -radius : radius),
+                    center.getY() + ((corner & 2) == 0 ? -radius : radius),
+                    center.getZ() + ((corner & 4) == 0 ? -radius : radius));
+            if (point.equals(this.p0))
+                return false;
+            Vector d = point.subtract(this.p0);
+            double z = d.dotProduct(this.vTo);
+            if (z < NEAR)
+                return false;
+            double j = d.dotProduct(this.vRight) * this.distance / z / this.pixelWidth + (nX - 1) / 2.0;
+            double i = -d.dotProduct(this.vUp) * this.distance / z / this.pixelHeight + (nY - 1) / 2.0;
+            minJ = Math.min(minJ, j);
+            maxJ = Math.max(maxJ, j);
+            minI = Math.min(minI, i);
+            maxI = Math.max(maxI, i);
+        }
+
+        // |p0 + tD - c|^2 = r^2  =>  (D.D)t^2 - 2(D.oc)t + (oc.oc - r^2) = 0, where oc = c - p0
+        Vector oc = center.subtract(this.p0);
+        double c = oc.lengthSquared() - radius * radius;
+        // the discriminant is (D.D)(r^2 - s^2), where s is the distance of the ray from the center - a ray is kept
+        // up to the tolerance of the edges (in pixels, at the depth of the center) outside the silhouette
+        double margin = EDGE_TOLERANCE * Math.max(this.pixelWidth, this.pixelHeight)
+                * oc.dotProduct(this.vTo) / this.distance;
+        double slack = margin * (2 * radius + margin);
+        int fromI = Math.max(0, (int) Math.ceil(minI - EDGE_TOLERANCE));
+        int toI = Math.min(nY - 1, (int) Math.floor(maxI + EDGE_TOLERANCE));
+        int fromJ = Math.max(0, (int) Math.ceil(minJ - EDGE_TOLERANCE));
+        int toJ = Math.min(nX - 1, (int) Math.floor(maxJ + EDGE_TOLERANCE));
+        for (int i = fromI; i <= toI; i++)
+            for (int j = fromJ; j <= toJ; j++) {
+                double dx = this.base.getX() + j * this.right.getX() + i * this.down.getX();
+                double dy = this.base.getY() + j * this.right.getY() + i * this.down.getY();
+                double dz = this.base.getZ() + j * this.right.getZ() + i * this.down.getZ();
+                double a = dx * dx + dy * dy + dz * dz;
+                double b = dx * oc.getX() + dy * oc.getY() + dz * oc.getZ();
+                double discriminant = b * b - a * c;
+                if (discriminant < -a * slack)
+                    continue;
+                double root = Math.sqrt(Math.max(0, discriminant));
+                double t = (b - root) / a;
+                if (t <= 0)
+                    t = (b + root) / a;
+                this.write(j, i, sphere, t);
+            }
+        return true;
+    }
+
+    /**
+     * Writes a geometry into a pixel, if it is in front of the camera and nearer than the geometry the pixel saw
+     *
+     * @param j        the column of the pixel
+     * @param i        the row of the pixel
+     * @param geometry the geometry
+     * @param depth    the depth of the geometry along the unnormalized direction of the ray of the pixel
+     */
+    private void write(int j, int i, Geometry geometry, double depth) {
+        int k = i * nX + j;
+        if (depth > 0 && depth < this.depths[k]) {
+            this.depths[k] = depth;
+            this.geometries[k] = geometry;
+        }
+    }
+}
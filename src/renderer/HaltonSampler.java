@@ -0,0 +1,61 @@
+package renderer;
+
+/**
+ * A sampler of the Halton sequence - the coordinate of a dimension is the radical inverse of the index of the sample
+ * in a prime base of its own, so the samples of any prefix of the sequence are well spread in all the dimensions
+ * together. Every pixel and dimension shifts (modulo the base) every digit of the radical inverse by a random
+ * amount of its own (random digit shift), so the pixels don't share their patterns and the samples stay stratified
+ */
+class HaltonSampler implements Sampler {
+    /**
+     * The bases of the dimensions
+     */
+    private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53};
+
+    /**
+     * The seed of the shifts
+     */
+    private final long seed;
+
+    /**
+     * Constructor to initialize the sampler
+     *
+     * @param seed the seed of the shifts
+     */
+    HaltonSampler(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public double get(int x, int y, long index, int dimension) {
+        if (dimension < 0 || dimension >= PRIMES.length)
+            throw new IllegalArgumentException("The Halton sampler supports " + PRIMES.length + " dimensions");
+
+        return Math.min(radicalInverse(PRIMES[dimension], index, Sampler.hash(seed, x, y, dimension)),
+                Math.nextDown(1.0));
+    }
+
+    /**
+     * Calculates the radical inverse of a number - its digits in a base, mirrored around the point -
+     * with every digit shifted by a random amount, up to the precision of a double
+     *
+     * @param base   the base
+     * @param number the number, 0 or more
+     * @param shifts the hash the shifts of the digits are drawn from, 0 for no shifts
+     * @return the radical inverse, from 0 (included) to 1 (excluded)
+     */
+    static double radicalInverse(int base, long number, long shifts) {
+        double inverse = 0;
+        double digitValue = 1.0 / base;
+        for (int k = 0; digitValue > 0x1.0p-53; number /= base, digitValue /= base, k++) {
+            int shift = shifts == 0 ? 0 : (int) Math.floorMod(Sampler.mix(shifts + k), (long) base);
+            inverse += (number % base + shift) % base * digitValue;
+        }
+        return inverse;
+    }
+
+    @Override
+    public String toString() {
+        return "halton " + seed;
+    }
+}
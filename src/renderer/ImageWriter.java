@@ -2,8 +2,16 @@ package renderer;
 
 import primitives.Color;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -22,8 +30,63 @@ public class ImageWriter {
 
 	private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
 
-	private BufferedImage image;
+	/**
+	 * The linear RGB components of the pixels, 3 floats per pixel, row after row.
+	 * The colors are kept without the upper limit of 255, threads that render
+	 * disjoint pixels write them without synchronization, and the image is tone
+	 * mapped from them only when it is written
+	 */
+	private final float[] pixels;
 	private String imageName;
+
+	/**
+	 * The height in rows of the bands of a streaming image writer, 0 for an image
+	 * writer that keeps the whole image
+	 */
+	private final int bandHeight;
+
+	/**
+	 * The bands of a streaming image writer, each allocated when its first pixel
+	 * is written and released when it is flushed
+	 */
+	private final AtomicReferenceArray<Band> bands;
+
+	/**
+	 * The amount of distinct pixels of every band that weren't written yet
+	 */
+	private final AtomicIntegerArray bandPixelsLeft;
+
+	/**
+	 * The mark of a band that was flushed into the file
+	 */
+	private static final Band FLUSHED = new Band(0);
+
+	/**
+	 * The first band that wasn't flushed yet
+	 */
+	private int nextBand = 0;
+
+	/**
+	 * The encoder of the streamed png file, opened with the first flushed band
+	 */
+	private PngEncoder encoder = null;
+
+	/**
+	 * Whether the streamed png file was finished or discarded, so no more bands
+	 * are flushed into it
+	 */
+	private boolean streamClosed = false;
+
+	/**
+	 * The memory mapped file of the linear colors of a mapped image writer, null
+	 * for an image writer that keeps them in the heap
+	 */
+	private final MappedFrameBuffer frameBuffer;
+
+	/**
+	 * The mapping of the linear colors to the image, clamping by default
+	 */
+	private ToneMapper toneMapper = ToneMapper.CLAMP;
 	
 	private Logger logger = Logger.getLogger("ImageWriter");
 
@@ -39,7 +102,149 @@ public class ImageWriter {
 		this.nX = nX;
 		this.nY = nY;
 
-		image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+		pixels = new float[nX * nY * 3];
+		bandHeight = 0;
+		bands = null;
+		bandPixelsLeft = null;
+		frameBuffer = null;
+	}
+
+	/**
+	 * Streaming Image Writer constructor. The image is kept in bands of rows, and
+	 * every band is tone mapped and flushed into the png file as soon as all its
+	 * pixels are written and all the bands above it are flushed, so the memory is
+	 * bounded by the bands in progress instead of the whole image. Every pixel has
+	 * to be written before its band is flushed - a pixel may be written again until
+	 * then, and the last color is kept. The file is finished by
+	 * {@link #writeToImage()}, or discarded by {@link #discardStream()} if the
+	 * image won't be finished
+	 * 
+	 * @param imageName  the name of png file
+	 * @param nX         amount of pixels by Width
+	 * @param nY         amount of pixels by height
+	 * @param bandHeight amount of rows in a band
+	 * @throws IllegalArgumentException if the band height isn't positive
+	 */
+	public ImageWriter(String imageName, int nX, int nY, int bandHeight) {
+		if (bandHeight <= 0)
+			throw new IllegalArgumentException("band height must be > 0");
+
+		this.imageName = imageName;
+		this.nX = nX;
+		this.nY = nY;
+		this.bandHeight = bandHeight;
+
+		pixels = null;
+		int bandsCount = (nY + bandHeight - 1) / bandHeight;
+		bands = new AtomicReferenceArray<>(bandsCount);
+		bandPixelsLeft = new AtomicIntegerArray(bandsCount);
+		for (int band = 0; band < bandsCount; band++)
+			bandPixelsLeft.set(band, bandRows(band) * nX);
+		frameBuffer = null;
+	}
+
+	/**
+	 * Mapped Image Writer constructor
+	 * 
+	 * @param imageName   the name of png file
+	 * @param frameBuffer the memory mapped file of the linear colors
+	 */
+	private ImageWriter(String imageName, MappedFrameBuffer frameBuffer) {
+		this.imageName = imageName;
+		this.nX = frameBuffer.nX;
+		this.nY = frameBuffer.nY;
+		this.frameBuffer = frameBuffer;
+
+		pixels = null;
+		bandHeight = 0;
+		bands = null;
+		bandPixelsLeft = null;
+	}
+
+	/**
+	 * Mapped Image Writer factory. The linear colors of the pixels are kept in a
+	 * memory mapped raw file (imageName.rgbf in the images directory) instead of
+	 * the heap, so the image may be larger than the heap and the written pixels
+	 * survive a crash of the JVM. An existing raw file of an image of the same size
+	 * is kept with its pixels; the png file is produced by {@link #writeToImage()},
+	 * in a single pass over the rows
+	 * 
+	 * @param imageName the name of the raw and png files
+	 * @param nX        amount of pixels by Width
+	 * @param nY        amount of pixels by height
+	 * @return the mapped image writer
+	 */
+	public static ImageWriter mapped(String imageName, int nX, int nY) {
+		Path path = Path.of(FOLDER_PATH, imageName + ".rgbf");
+		try {
+			return new ImageWriter(imageName, new MappedFrameBuffer(path, nX, nY));
+		} catch (IOException e) {
+			throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
+		}
+	}
+
+	/**
+	 * Mapped Image Writer factory of an existing raw file, e.g. for converting the
+	 * raw file of a render (that may have crashed) into a png file in a separate pass
+	 * 
+	 * @param imageName the name of the raw and png files
+	 * @return the mapped image writer, of the size of the raw file
+	 */
+	public static ImageWriter openMapped(String imageName) {
+		Path path = Path.of(FOLDER_PATH, imageName + ".rgbf");
+		try {
+			return new ImageWriter(imageName, new MappedFrameBuffer(path));
+		} catch (IOException e) {
+			throw new IllegalStateException("I/O error - may be missing file " + path, e);
+		}
+	}
+
+	/**
+	 * Image Writer factory reading the linear colors of an image that was written
+	 * by {@link #writeToPfm()}, so it can be tone mapped again without rendering it
+	 * 
+	 * @param imageName the name of the pfm file (and of the image to write)
+	 * @return the image writer holding the colors of the file
+	 */
+	public static ImageWriter readPfm(String imageName) {
+		Path path = Path.of(FOLDER_PATH, imageName + ".pfm");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			String format = readPfmToken(buffer);
+			int nX = Integer.parseInt(readPfmToken(buffer));
+			int nY = Integer.parseInt(readPfmToken(buffer));
+			double scale = Double.parseDouble(readPfmToken(buffer));
+			if (!format.equals("PF"))
+				throw new IllegalArgumentException("Not a color pfm file: " + path);
+
+			buffer.order(scale < 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+			ImageWriter imageWriter = new ImageWriter(imageName, nX, nY);
+			// the rows of pfm are stored from the bottom up, and 1.0 is the full white
+			for (int y = nY - 1; y >= 0; y--)
+				for (int i = y * nX * 3; i < (y + 1) * nX * 3; i++)
+					imageWriter.pixels[i] = buffer.getFloat() * 255;
+			return imageWriter;
+		} catch (IOException e) {
+			throw new IllegalStateException("I/O error - may be missing file " + path, e);
+		}
+	}
+
+	/**
+	 * Reads a white space separated token of the text header of a pfm file
+	 * 
+	 * @param buffer the contents of the file
+	 * @return the token
+	 */
+	private static String readPfmToken(ByteBuffer buffer) {
+		StringBuilder token = new StringBuilder();
+		char c = (char) buffer.get();
+		while (Character.isWhitespace(c))
+			c = (char) buffer.get();
+		while (!Character.isWhitespace(c)) {
+			token.append(c);
+			c = (char) buffer.get();
+		}
+		return token.toString();
 	}
 
 	// ***************** Getters/Setters ********************** //
@@ -61,6 +266,28 @@ public class ImageWriter {
 		return nX;
 	}
 
+	/**
+	 * Whether the image is streamed into its file while it is written, so its rows
+	 * should be written (about) in order
+	 * 
+	 * @return true for a streaming image writer
+	 */
+	public boolean isStreaming() {
+		return bands != null;
+	}
+
+	/**
+	 * Sets the mapping of the linear colors to the written image. Changing it
+	 * (e.g. the exposure) and writing the image again doesn't need a new render
+	 * 
+	 * @param toneMapper the tone mapper
+	 * @return the image writer itself
+	 */
+	public ImageWriter setToneMapper(ToneMapper toneMapper) {
+		this.toneMapper = toneMapper;
+		return this;
+	}
+
 	// ***************** Operations ******************** //
 
 	/**
@@ -68,7 +295,22 @@ public class ImageWriter {
 	 * pixel color matrix in the directory of the project
 	 */
 	public void writeToImage() {
+		if (isStreaming()) {
+			finishStreaming();
+			return;
+		}
+
 		try {
+			if (frameBuffer != null) {
+				writeMappedImage();
+				return;
+			}
+
+			int[] rgb = new int[nX * nY];
+			for (int i = 0; i < rgb.length; i++)
+				rgb[i] = toRGB(pixels, i * 3);
+			BufferedImage image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+			image.setRGB(0, 0, nX, nY, rgb, 0, nX);
 			File file = new File(FOLDER_PATH + '/' + imageName + ".png");
 			ImageIO.write(image, "png", file);
 		} catch (IOException e) {
@@ -77,6 +319,56 @@ public class ImageWriter {
 		}
 	}
 
+	/**
+	 * Encodes the png file of a mapped image writer row by row, so only a single
+	 * row of the image is in the heap at a time
+	 * 
+	 * @throws IOException if the file can't be written
+	 */
+	private void writeMappedImage() throws IOException {
+		frameBuffer.force();
+		float[] row = new float[nX * 3];
+		int[] rgb = new int[nX];
+		try (PngEncoder png = new PngEncoder(new FileOutputStream(FOLDER_PATH + '/' + imageName + ".png"), nX, nY)) {
+			for (int y = 0; y < nY; y++) {
+				frameBuffer.getRow(y, row);
+				for (int x = 0; x < nX; x++)
+					rgb[x] = toRGB(row, x * 3);
+				png.writeRow(rgb, 0);
+			}
+		}
+	}
+
+	/**
+	 * Function writeToPfm writes the linear colors of the pixels, without any tone
+	 * mapping, into a pfm (portable float map) file in the directory of the project
+	 */
+	public void writeToPfm() {
+		if (isStreaming())
+			throw new UnsupportedOperationException("The pixels of a streaming image writer aren't kept");
+
+		// a pfm file is a short text header and little endian floats, with the rows from the bottom up
+		String header = "PF\n" + nX + " " + nY + "\n-1.0\n";
+		ByteBuffer buffer = ByteBuffer.allocate(nX * 3 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		float[] row = new float[nX * 3];
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(FOLDER_PATH + '/' + imageName + ".pfm"))) {
+			out.write(header.getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+			for (int y = nY - 1; y >= 0; y--) {
+				if (frameBuffer != null)
+					frameBuffer.getRow(y, row);
+				else
+					System.arraycopy(pixels, y * nX * 3, row, 0, nX * 3);
+				buffer.clear();
+				for (float component : row)
+					buffer.putFloat(component / 255);
+				out.write(buffer.array());
+			}
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "I/O error", e);
+			throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
+		}
+	}
+
 	/**
 	 * The function writePixel writes a color of a specific pixel into pixel color
 	 * matrix
@@ -86,6 +378,239 @@ public class ImageWriter {
 	 * @param color  final color of the pixel
 	 */
 	public void writePixel(int xIndex, int yIndex, Color color) {
-		image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+		if (isStreaming()) {
+			writeBandPixel(xIndex, yIndex, color);
+			return;
+		}
+		if (frameBuffer != null) {
+			frameBuffer.put(xIndex, yIndex, toFloat(color.getRed()), toFloat(color.getGreen()), toFloat(color.getBlue()));
+			return;
+		}
+
+		int i = (yIndex * nX + xIndex) * 3;
+		pixels[i] = toFloat(color.getRed());
+		pixels[i + 1] = toFloat(color.getGreen());
+		pixels[i + 2] = toFloat(color.getBlue());
+	}
+
+	/**
+	 * Writes a color of a specific pixel into its band, and flushes the finished
+	 * bands if it was the last pixel of its band
+	 * 
+	 * @param xIndex X axis index of the pixel
+	 * @param yIndex Y axis index of the pixel
+	 * @param color  final color of the pixel
+	 */
+	private void writeBandPixel(int xIndex, int yIndex, Color color) {
+		int band = yIndex / bandHeight;
+		Band buffer = bands.get(band);
+		if (buffer == null) {
+			bands.compareAndSet(band, null, new Band(bandRows(band) * nX));
+			buffer = bands.get(band);
+		}
+		if (buffer == FLUSHED)
+			throw new IllegalStateException("Row " + yIndex + " was already flushed into the image");
+
+		int pixel = (yIndex - band * bandHeight) * nX + xIndex;
+		int i = pixel * 3;
+		buffer.pixels[i] = toFloat(color.getRed());
+		buffer.pixels[i + 1] = toFloat(color.getGreen());
+		buffer.pixels[i + 2] = toFloat(color.getBlue());
+
+		// only the first write of a pixel counts, an overwritten pixel doesn't finish its band early
+		// the atomic count publishes the pixels of the band to the thread that flushes it
+		if (buffer.markWritten(pixel) && bandPixelsLeft.decrementAndGet(band) == 0)
+			flushBands();
+	}
+
+	/**
+	 * Calculates the amount of rows of a band - all the bands have the band
+	 * height, except the last one that may be shorter
+	 * 
+	 * @param band the index of the band
+	 * @return the amount of rows of the band
+	 */
+	private int bandRows(int band) {
+		return Math.min(bandHeight, nY - band * bandHeight);
+	}
+
+	/**
+	 * Tone maps and writes into the png file all the finished bands that follow
+	 * the bands that were already flushed, and releases their memory
+	 */
+	private synchronized void flushBands() {
+		if (streamClosed)
+			return;
+
+		try {
+			if (encoder == null)
+				encoder = new PngEncoder(new FileOutputStream(FOLDER_PATH + '/' + imageName + ".png"), nX, nY);
+
+			int[] rgb = new int[nX];
+			for (; nextBand < bands.length() && bandPixelsLeft.get(nextBand) == 0; nextBand++) {
+				float[] buffer = bands.get(nextBand).pixels;
+				for (int row = 0; row < bandRows(nextBand); row++) {
+					for (int x = 0; x < nX; x++)
+						rgb[x] = toRGB(buffer, (row * nX + x) * 3);
+					encoder.writeRow(rgb, 0);
+				}
+				bands.set(nextBand, FLUSHED);
+			}
+		} catch (IOException e) {
+			discardStream();
+			logger.log(Level.SEVERE, "I/O error", e);
+			throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
+		}
+	}
+
+	/**
+	 * Finishes the png file of a streaming image writer. If some pixels weren't
+	 * written, the unfinished file is discarded
+	 * 
+	 * @throws IllegalStateException if some pixels of the image weren't written
+	 */
+	private synchronized void finishStreaming() {
+		if (nextBand < bands.length()) {
+			int firstRow = nextBand * bandHeight;
+			discardStream();
+			throw new IllegalStateException("Rows from " + firstRow + " of the image weren't written");
+		}
+		if (streamClosed)
+			return;
+
+		streamClosed = true;
+		try {
+			encoder.close();
+		} catch (IOException e) {
+			deleteImage();
+			logger.log(Level.SEVERE, "I/O error", e);
+			throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
+		} finally {
+			encoder = null;
+		}
+	}
+
+	/**
+	 * Discards the png file of a streaming image writer whose image won't be
+	 * finished (e.g. a failed render) - closes the file and deletes it, so neither
+	 * an open file nor a truncated image is left behind. Pixels written afterwards
+	 * aren't flushed
+	 */
+	public synchronized void discardStream() {
+		if (!isStreaming() || streamClosed)
+			return;
+
+		streamClosed = true;
+		if (encoder == null)
+			return;
+
+		try {
+			encoder.close();
+		} catch (IOException | IllegalStateException e) {
+			// the unfinished image can't be completed, closing it only releases the file
+		} finally {
+			encoder = null;
+			deleteImage();
+		}
+	}
+
+	/**
+	 * Deletes the png file of the image
+	 */
+	private void deleteImage() {
+		try {
+			Files.deleteIfExists(Path.of(FOLDER_PATH, imageName + ".png"));
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Can't delete the unfinished image " + imageName, e);
+		}
+	}
+
+	/**
+	 * Narrows a color component to a float, rounded down, so the truncation of
+	 * the packed image gives exactly the same value as the component itself
+	 * 
+	 * @param value the color component
+	 * @return the largest float that isn't bigger than the component
+	 */
+	static float toFloat(double value) {
+		float f = (float) value;
+		return f > value ? Math.nextDown(f) : f;
+	}
+
+	/**
+	 * The function getPixel reads the color of a specific pixel from the pixel
+	 * color matrix
+	 * 
+	 * @param xIndex X axis index of the pixel
+	 * @param yIndex Y axis index of the pixel
+	 * @return the packed RGB color of the pixel after tone mapping (see {@link Color#getRGB()})
+	 * @throws IllegalStateException if the pixel of a streaming image writer isn't kept in memory
+	 */
+	public int getPixel(int xIndex, int yIndex) {
+		if (frameBuffer != null)
+			return toRGB(new float[] { frameBuffer.get(xIndex, yIndex, 0), frameBuffer.get(xIndex, yIndex, 1),
+					frameBuffer.get(xIndex, yIndex, 2) }, 0);
+		if (!isStreaming())
+			return toRGB(pixels, (yIndex * nX + xIndex) * 3);
+
+		int band = yIndex / bandHeight;
+		Band buffer = bands.get(band);
+		if (buffer == null || buffer == FLUSHED)
+			throw new IllegalStateException("Row " + yIndex + " isn't kept in memory");
+		return toRGB(buffer.pixels, ((yIndex - band * bandHeight) * nX + xIndex) * 3);
+	}
+
+	/**
+	 * Tone maps the linear components of a pixel and packs them the way
+	 * {@link Color#getRGB()} does
+	 * 
+	 * @param buffer the linear RGB components of the pixels
+	 * @param i      the index of the red component of the pixel
+	 * @return the packed RGB color of the pixel
+	 */
+	private int toRGB(float[] buffer, int i) {
+		int ir = (int) toneMapper.map(buffer[i]);
+		int ig = (int) toneMapper.map(buffer[i + 1]);
+		int ib = (int) toneMapper.map(buffer[i + 2]);
+		return 0xFF000000 | (ir > 255 ? 255 : ir) << 16 | (ig > 255 ? 255 : ig) << 8 | (ib > 255 ? 255 : ib);
+	}
+
+	/**
+	 * A band of rows of a streaming image writer
+	 */
+	private static final class Band {
+		/**
+		 * The linear RGB components of the pixels of the band, 3 floats per pixel, row
+		 * after row
+		 */
+		private final float[] pixels;
+
+		/**
+		 * A bit for every pixel of the band that was written, so a pixel that is
+		 * written again isn't counted again. Threads write pixels of the same band
+		 * concurrently, so the bits are set atomically
+		 */
+		private final AtomicLongArray written;
+
+		/**
+		 * Band constructor
+		 * 
+		 * @param pixelsCount amount of pixels in the band
+		 */
+		private Band(int pixelsCount) {
+			pixels = new float[pixelsCount * 3];
+			written = new AtomicLongArray((pixelsCount + 63) / 64);
+		}
+
+		/**
+		 * Marks a pixel of the band as written
+		 * 
+		 * @param pixel the index of the pixel in the band
+		 * @return true if it is the first write of the pixel
+		 */
+		private boolean markWritten(int pixel) {
+			long bit = 1L << pixel;
+			return (written.getAndAccumulate(pixel >> 6, bit, (word, b) -> word | b) & bit) == 0;
+		}
 	}
 }
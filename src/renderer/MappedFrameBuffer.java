@@ -0,0 +1,177 @@
+package renderer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A frame buffer of linear RGB colors kept in a memory mapped file instead of the heap.
+ * The operating system pages the pixels in and out, so the image may be larger than the heap,
+ * and the pixels that were written survive a crash of the JVM.
+ * <p>
+ * The file is a 16 bytes header - a magic number, the width, the height and a reserved int -
+ * followed by the rows of the image from the top down, 3 little endian floats per pixel in the units of Color.
+ * A file is mapped in chunks of whole rows, since a single mapping is limited to 2GB
+ */
+class MappedFrameBuffer {
+    /**
+     * The magic number of the file, "RGBF"
+     */
+    private static final int MAGIC = 0x52474246;
+
+    /**
+     * The size of the header of the file in bytes
+     */
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * The size of a pixel in bytes
+     */
+    private static final int PIXEL_SIZE = 3 * Float.BYTES;
+
+    /**
+     * The width of the image in pixels
+     */
+    final int nX;
+    /**
+     * The height of the image in pixels
+     */
+    final int nY;
+
+    /**
+     * The amount of rows in every mapped chunk
+     */
+    private final int rowsPerChunk;
+
+    /**
+     * The mapped chunks of the pixels of the file
+     */
+    private final MappedByteBuffer[] chunks;
+
+    /**
+     * Maps a frame buffer file of an image. An existing file of an image of the same size is kept as it is,
+     * so the pixels that were written into it before are not lost; any other file is replaced by a black image
+     *
+     * @param path the path of the file
+     * @param nX   amount of pixels by width
+     * @param nY   amount of pixels by height
+     * @throws IOException if the file can't be created or mapped
+     */
+    MappedFrameBuffer(Path path, int nX, int nY) throws IOException {
+        this.nX = nX;
+        this.nY = nY;
+        this.rowsPerChunk = Math.max(1, Integer.MAX_VALUE / (nX * PIXEL_SIZE));
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            long size = HEADER_SIZE + (long) nX * nY * PIXEL_SIZE;
+            boolean reuse = channel.size() == size && channel.read(header, 0) == HEADER_SIZE
+                    && header.getInt(0) == MAGIC && header.getInt(4) == nX && header.getInt(8) == nY;
+            if (!reuse) {
+                channel.truncate(0);
+                header.clear();
+                header.putInt(MAGIC).putInt(nX).putInt(nY).putInt(0).flip();
+                channel.write(header, 0);
+                // a new file is sparse - the pixels are zeros (black) until they are written
+                channel.write(ByteBuffer.allocate(1), size - 1);
+            }
+            this.chunks = map(channel);
+        }
+    }
+
+    /**
+     * Maps an existing frame buffer file, of the size written in its header
+     *
+     * @param path the path of the file
+     * @throws IOException              if the file can't be read or mapped
+     * @throws IllegalArgumentException if the file isn't a frame buffer file
+     */
+    MappedFrameBuffer(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(header, 0) != HEADER_SIZE || header.getInt(0) != MAGIC)
+                throw new IllegalArgumentException("Not a frame buffer file: " + path);
+
+            this.nX = header.getInt(4);
+            this.nY = header.getInt(8);
+            this.rowsPerChunk = Math.max(1, Integer.MAX_VALUE / (nX * PIXEL_SIZE));
+            if (channel.size() != HEADER_SIZE + (long) nX * nY * PIXEL_SIZE)
+                throw new IllegalArgumentException("Truncated frame buffer file: " + path);
+            this.chunks = map(channel);
+        }
+    }
+
+    /**
+     * Maps the pixels of the file in chunks of whole rows
+     *
+     * @param channel the channel of the file
+     * @return the mapped chunks
+     * @throws IOException if the file can't be mapped
+     */
+    private MappedByteBuffer[] map(FileChannel channel) throws IOException {
+        MappedByteBuffer[] chunks = new MappedByteBuffer[(nY + rowsPerChunk - 1) / rowsPerChunk];
+        for (int k = 0; k < chunks.length; k++) {
+            int rows = Math.min(rowsPerChunk, nY - k * rowsPerChunk);
+            long position = HEADER_SIZE + (long) k * rowsPerChunk * nX * PIXEL_SIZE;
+            chunks[k] = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) rows * nX * PIXEL_SIZE);
+            chunks[k].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+
+    /**
+     * Writes the color of a pixel. Only absolute puts are used, they don't change the state of the buffers,
+     * so threads that write disjoint pixels need no synchronization
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @param r the red component
+     * @param g the green component
+     * @param b the blue component
+     */
+    void put(int x, int y, float r, float g, float b) {
+        int offset = ((y % rowsPerChunk) * nX + x) * PIXEL_SIZE;
+        MappedByteBuffer chunk = chunks[y / rowsPerChunk];
+        chunk.putFloat(offset, r);
+        chunk.putFloat(offset + Float.BYTES, g);
+        chunk.putFloat(offset + 2 * Float.BYTES, b);
+    }
+
+    /**
+     * Reads a color component of a pixel
+     *
+     * @param x         the column of the pixel
+     * @param y         the row of the pixel
+     * @param component the component - 0 for red, 1 for green and 2 for blue
+     * @return the component
+     */
+    float get(int x, int y, int component) {
+        return chunks[y / rowsPerChunk].getFloat(((y % rowsPerChunk) * nX + x) * PIXEL_SIZE + component * Float.BYTES);
+    }
+
+    /**
+     * Reads the colors of a row of pixels
+     *
+     * @param y   the row
+     * @param row the array to fill with 3 components per pixel
+     */
+    void getRow(int y, float[] row) {
+        int offset = (y % rowsPerChunk) * nX * PIXEL_SIZE;
+        MappedByteBuffer chunk = chunks[y / rowsPerChunk];
+        for (int i = 0; i < nX * 3; i++)
+            row[i] = chunk.getFloat(offset + i * Float.BYTES);
+    }
+
+    /**
+     * Writes all the changes of the pixels to the file on the storage device
+     */
+    void force() {
+        for (MappedByteBuffer chunk : chunks)
+            chunk.force();
+    }
+}
@@ -0,0 +1,165 @@
+package renderer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A streaming encoder of 8 bit RGB png images.
+ * The rows are compressed and written as soon as they are given, from the top down,
+ * so the encoder holds a single row and a compression buffer, whatever the size of the image is
+ */
+class PngEncoder implements Closeable {
+    /**
+     * The signature every png file starts with
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * The png filter type of the rows - each byte is stored as the difference from the same component
+     * of the pixel to its left, which compresses the smooth gradients of rendered images well
+     */
+    private static final byte FILTER_SUB = 1;
+
+    /**
+     * The size of the compressed data chunks
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The stream of the png file
+     */
+    private final DataOutputStream out;
+    /**
+     * The compressor of the image data
+     */
+    private final Deflater deflater = new Deflater();
+    /**
+     * The width of the image in pixels
+     */
+    private final int width;
+    /**
+     * The amount of rows that have to be written
+     */
+    private int rowsLeft;
+    /**
+     * The filtered bytes of a row, including the filter type
+     */
+    private final byte[] row;
+    /**
+     * The compressed data of the next chunk
+     */
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+
+    /**
+     * Constructor to initialize the encoder, writes the header of the image
+     *
+     * @param out    the stream to write the png into, closed with the encoder
+     * @param width  the width of the image in pixels
+     * @param height the height of the image in pixels
+     * @throws IOException if the stream can't be written
+     */
+    PngEncoder(OutputStream out, int width, int height) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.width = width;
+        this.rowsLeft = height;
+        this.row = new byte[1 + width * 3];
+
+        this.out.write(SIGNATURE);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(header);
+        data.writeInt(width);
+        data.writeInt(height);
+        data.writeByte(8); // bits per component
+        data.writeByte(2); // RGB color type
+        data.writeByte(0); // deflate compression
+        data.writeByte(0); // adaptive filtering
+        data.writeByte(0); // no interlace
+        writeChunk("IHDR", header.toByteArray(), header.size());
+    }
+
+    /**
+     * Compresses and writes the next row of the image
+     *
+     * @param rgb    the packed RGB colors (see {@link primitives.Color#getRGB()})
+     * @param offset the index of the first pixel of the row in rgb
+     * @throws IOException           if the stream can't be written
+     * @throws IllegalStateException if all the rows were already written
+     */
+    void writeRow(int[] rgb, int offset) throws IOException {
+        if (rowsLeft == 0)
+            throw new IllegalStateException("All the rows of the image were already written");
+        rowsLeft--;
+
+        row[0] = FILTER_SUB;
+        int left = 0;
+        for (int x = 0, i = 1; x < width; x++, i += 3) {
+            int pixel = rgb[offset + x];
+            row[i] = (byte) ((pixel >> 16) - (left >> 16));
+            row[i + 1] = (byte) ((pixel >> 8) - (left >> 8));
+            row[i + 2] = (byte) (pixel - left);
+            left = pixel;
+        }
+
+        deflater.setInput(row);
+        while (!deflater.needsInput())
+            deflate(Deflater.NO_FLUSH);
+    }
+
+    /**
+     * Compresses the pending data into the chunk buffer, and writes the buffer when it is full
+     *
+     * @param flush the flush mode of the deflater
+     * @return the amount of compressed bytes
+     * @throws IOException if the stream can't be written
+     */
+    private int deflate(int flush) throws IOException {
+        int size = deflater.deflate(chunk, 0, chunk.length, flush);
+        if (size > 0)
+            writeChunk("IDAT", chunk, size);
+        return size;
+    }
+
+    /**
+     * Writes a png chunk - its length, type, data and checksum
+     *
+     * @param type the four letters type of the chunk
+     * @param data the data of the chunk
+     * @param size the amount of bytes of data
+     * @throws IOException if the stream can't be written
+     */
+    private void writeChunk(String type, byte[] data, int size) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, size);
+
+        out.writeInt(size);
+        out.write(typeBytes);
+        out.write(data, 0, size);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Finishes the compressed data, writes the end of the image and closes the stream
+     *
+     * @throws IOException           if the stream can't be written
+     * @throws IllegalStateException if some rows of the image weren't written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsLeft != 0)
+                throw new IllegalStateException(rowsLeft + " rows of the image weren't written");
+
+            deflater.finish();
+            while (!deflater.finished())
+                deflate(Deflater.NO_FLUSH);
+            writeChunk("IEND", chunk, 0);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package renderer;
+
+/**
+ * A sampler of independent pseudo random numbers - every coordinate is a hash of the seed, the pixel,
+ * the index of the sample and the dimension
+ */
+class RandomSampler implements Sampler {
+    /**
+     * The seed of the numbers
+     */
+    private final long seed;
+
+    /**
+     * Constructor to initialize the sampler
+     *
+     * @param seed the seed of the numbers
+     */
+    RandomSampler(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public double get(int x, int y, long index, int dimension) {
+        if (dimension < 0)
+            throw new IllegalArgumentException("dimension must be >= 0");
+        return (Sampler.mix(Sampler.hash(seed, x, y, dimension) + index) >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public String toString() {
+        return "random " + seed;
+    }
+}
@@ -1,5 +1,7 @@
 package renderer;
 
+import geometries.Intersectable;
+import geometries.Intersectable.GeoPoint;
 import primitives.Color;
 import primitives.Ray;
 import scene.Scene;
@@ -27,4 +29,31 @@ public abstract class RayTracerBase {
      * @return The color of the object that the ray hits.
      */
     public abstract Color traceRay(Ray ray);
+
+    /**
+     * Given a ray and the geometries of the scene it may hit (such as the geometries in the frustum of a tile of
+     * primary rays), return the color of the object that the ray hits. The geometries only narrow the search for
+     * the object the ray hits, the shading still sees the whole scene. A ray tracer that can't narrow its search
+     * traces the ray in the whole scene
+     *
+     * @param ray        The ray that is being traced.
+     * @param geometries The geometries of the scene the ray may hit.
+     * @return The color of the object that the ray hits.
+     */
+    public Color traceRay(Ray ray, Intersectable geometries) {
+        return traceRay(ray);
+    }
+
+    /**
+     * Given a ray and the closest point it hits, which was found by other means (such as rasterization),
+     * return the color of that point - only the shading of the point is traced. A ray tracer that can't shade
+     * a given point traces the ray in the whole scene
+     *
+     * @param ray The ray that is being traced.
+     * @param hit The closest point the ray hits, null if it hits nothing.
+     * @return The color of the point.
+     */
+    public Color traceHit(Ray ray, GeoPoint hit) {
+        return traceRay(ray);
+    }
 }
@@ -3,10 +3,9 @@ package renderer;
 import lighting.LightSource;
 import primitives.*;
 import scene.Scene;
+import geometries.Intersectable;
 import geometries.Intersectable.GeoPoint;
 
-import java.util.List;
-
 import static primitives.Util.alignZero;
 
 /**
@@ -38,11 +37,35 @@ public class RayTracerBasic extends RayTracerBase {
      */
     @Override
     public Color traceRay(Ray ray) {
-        GeoPoint closestPoint = findClosestIntersection(ray);
-        if (closestPoint == null)
+        return traceRay(ray, this.scene.geometries);
+    }
+
+    /**
+     * Given a ray, find the closest point of intersection with the geometries it may hit,
+     * and return the color of that point
+     *
+     * @param ray        The ray that we're tracing.
+     * @param geometries The geometries of the scene the ray may hit.
+     * @return The color of the closest point.
+     */
+    @Override
+    public Color traceRay(Ray ray, Intersectable geometries) {
+        return traceHit(ray, geometries.findClosestGeoIntersection(ray));
+    }
+
+    /**
+     * Given a ray and the closest point it hits, return the color of that point
+     *
+     * @param ray The ray that we're tracing.
+     * @param hit The closest point the ray hits, null if it hits nothing.
+     * @return The color of the point.
+     */
+    @Override
+    public Color traceHit(Ray ray, GeoPoint hit) {
+        if (hit == null)
             return scene.background;
 
-        return calcColor(closestPoint, ray);
+        return calcColor(hit, ray);
     }
 
     /**
@@ -97,7 +120,7 @@ public class RayTracerBasic extends RayTracerBase {
      */
     private Color calcLocalEffects(GeoPoint gp, Ray ray, Double3 k) {
         Color color = Color.BLACK;
-        Vector n = gp.geometry.getNormal(gp.point);
+        Vector n = gp.getNormal();
         Vector v = ray.getDir();
         double nv = alignZero(n.dotProduct(v));
         if (nv == 0)
@@ -120,57 +143,40 @@ public class RayTracerBasic extends RayTracerBase {
     }
 
     /**
-     * If the ray from the point to the light source intersects with any geometry, then the point is shaded
+     * If the ray from the point to the light source is blocked by an opaque geometry, then the point is shaded
      *
      * @param lightSource The light source that we are checking if it is unshaded.
      * @param gp          The point on the geometry that we're currently shading.
      * @param l           The vector from the point to the light source.
      * @param n           The normal vector to the surface at the intersection point.
      * @param nv          the dot product of the normal vector and the vector from the camera to the point.
-     * @return the color of the point.
+     * @return true if no opaque geometry is between the point and the light source.
      */
     private boolean unshaded(LightSource lightSource, GeoPoint gp, Vector l, Vector n, double nv) {
         Vector lightDirection = l.scale(-1); // from point to light source
         Ray lightRay = new Ray(gp.point, lightDirection, n);
 
-        List<GeoPoint> intersections = this.scene.geometries.findGeoIntersections(lightRay);
-        if (intersections == null)
-            return true;
-
         double lightDistance = lightSource.getDistance(lightRay.getP0());
-        for (var geoPoint : intersections)
-            if (geoPoint.point.distance(lightRay.getP0()) < lightDistance &&
-                    gp.geometry.getMaterial().kT == Double3.ZERO)
-                return false;
-
-        return true;
+        return !this.scene.geometries.findTransparency(lightRay, lightDistance).equals(Double3.ZERO);
     }
 
     /**
-     * If the ray from the point to the light source intersects with any geometry, then the point is shaded
+     * If the ray from the point to the light source intersects with any geometry, then the point is (partially) shaded
      *
      * @param gp The point on the geometry that we're currently shading.
      * @param ls The light source that we are checking if it is unshaded.
      * @param l  The vector from the point to the light source.
      * @param n  The normal vector to the surface at the intersection point.
-     * @return the color of the point.
+     * @return the transparency between the point and the light source.
      */
     private Double3 transparency(GeoPoint gp, LightSource ls, Vector l, Vector n) {
         Vector lightDirection = l.scale(-1); // from point to light source
 
         Ray lightRay = new Ray(gp.point, lightDirection, n);
-        Double3 ktr = new Double3(1);
-
-        List<GeoPoint> intersections = this.scene.geometries.findGeoIntersections(lightRay);
-        if (intersections == null)
-            return ktr;
 
+        // only the geometries between the point and the light source block it
         double lightDistance = ls.getDistance(lightRay.getP0());
-        for (var geoPoint : intersections)
-            if (geoPoint.point.distance(lightRay.getP0()) < lightDistance)
-                ktr = geoPoint.geometry.getMaterial().kT.product(ktr);
-
-        return ktr;
+        return this.scene.geometries.findTransparency(lightRay, lightDistance);
     }
 
     /**
@@ -197,8 +203,8 @@ public class RayTracerBasic extends RayTracerBase {
      * @return The specular component of the light.
      */
     private Double3 calcSpecular(Material material, Vector n, Vector l, double nl, Vector v) {
-        Vector r = l.subtract(n.scale(nl).scale(2));
-        double minus_vr = v.scale(-1).dotProduct(r);
+        // r = l - 2 * nl * n
+        double minus_vr = -VectorMath.addScaledDot(l, n, -nl * 2, v);
         if (minus_vr <= 0)
             return Double3.ZERO;
         return material.kS.scale(Math.pow(minus_vr, material.nShininess));
@@ -216,7 +222,7 @@ public class RayTracerBasic extends RayTracerBase {
      */
     private Color calcGlobalEffects(GeoPoint geopoint, Ray ray, int level, Double3 k) {
         Color color = Color.BLACK;
-        Vector n = geopoint.geometry.getNormal(geopoint.point);
+        Vector n = geopoint.getNormal();
 
         // the reflection effect
         Double3 kr = geopoint.geometry.getMaterial().kR;
@@ -276,9 +282,6 @@ public class RayTracerBasic extends RayTracerBase {
      * @return The closest intersection point of the reflected ray with the scene.
      */
     private GeoPoint findClosestIntersection(Ray reflectedRay) {
-        List<GeoPoint> intersections = this.scene.geometries.findGeoIntersections(reflectedRay);
-        if (intersections == null)
-            return null;
-        return reflectedRay.findClosestGeoPoint(intersections);
+        return this.scene.geometries.findClosestGeoIntersection(reflectedRay);
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package renderer;
+
+/**
+ * A sampler provides the coordinates of the samples of the pixels - the offset of a sample in its pixel,
+ * its point of the aperture, and any other dimension the renderer draws (soft shadows, glossy reflections...).
+ * <p>
+ * A coordinate is a pure function of the pixel, the index of the sample and the dimension, so a sampler has no state
+ * that threads contend on, and a pixel gets the same samples whatever thread renders it. The samplers decorrelate
+ * the pixels by scrambling their sequence by a hash of the seed and the pixel
+ */
+public interface Sampler {
+
+    /**
+     * Calculates a coordinate of a sample of a pixel
+     *
+     * @param x         the column of the pixel
+     * @param y         the row of the pixel
+     * @param index     the index of the sample in the pixel, from 0
+     * @param dimension the dimension of the coordinate, from 0
+     * @return the coordinate, from 0 (included) to 1 (excluded)
+     * @throws IllegalArgumentException if the sampler doesn't support the dimension
+     */
+    double get(int x, int y, long index, int dimension);
+
+    /**
+     * Creates a sampler of independent pseudo random numbers
+     *
+     * @param seed the seed of the numbers
+     * @return the sampler
+     */
+    static Sampler random(long seed) {
+        return new RandomSampler(seed);
+    }
+
+    /**
+     * Creates a sampler of the Halton low discrepancy sequence - the radical inverses of the index in the prime
+     * bases, rotated by a random offset per pixel and dimension
+     *
+     * @param seed the seed of the offsets
+     * @return the sampler
+     */
+    static Sampler halton(long seed) {
+        return new HaltonSampler(seed);
+    }
+
+    /**
+     * Creates a sampler of the Sobol low discrepancy sequence, scrambled by a random XOR per pixel and dimension
+     *
+     * @param seed the seed of the scrambling
+     * @return the sampler
+     */
+    static Sampler sobol(long seed) {
+        return new SobolSampler(seed);
+    }
+
+    /**
+     * Mixes the bits of a number (the finalizer of SplitMix64), so close numbers get unrelated hashes
+     *
+     * @param z the number
+     * @return the hash of the number
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Hashes a seed, a pixel and a dimension
+     *
+     * @param seed      the seed
+     * @param x         the column of the pixel
+     * @param y         the row of the pixel
+     * @param dimension the dimension
+     * @return the hash
+     */
+    static long hash(long seed, int x, int y, int dimension) {
+        return mix(mix(mix(seed ^ x) + y) + dimension);
+    }
+}
@@ -0,0 +1,92 @@
+package renderer;
+
+/**
+ * A sampler of the Sobol sequence - a base 2 low discrepancy sequence whose every 2^m aligned samples are
+ * stratified in the first dimensions together. Every pixel and dimension is scrambled by a random XOR of its own,
+ * which keeps the stratification, so the pixels don't share their patterns.
+ * <p>
+ * The direction numbers of the dimensions are of Joe and Kuo, for the first 8 dimensions,
+ * and the first 2^32 samples of a pixel are distinct
+ */
+class SobolSampler implements Sampler {
+    /**
+     * The degree, the coefficients and the initial direction numbers of the primitive polynomials of the dimensions
+     * after the first (whose direction numbers are the powers of 2)
+     */
+    private static final int[][] POLYNOMIALS = {
+            {1, 0, 1},
+            {2, 1, 1, 3},
+            {3, 1, 1, 3, 1},
+            {3, 2, 1, 1, 1},
+            {4, 1, 1, 1, 3, 3},
+            {4, 4, 1, 3, 5, 13},
+            {5, 2, 1, 1, 5, 5, 17}};
+
+    /**
+     * The amount of bits of a coordinate
+     */
+    private static final int BITS = 32;
+
+    /**
+     * The direction numbers of the dimensions, by dimension and bit
+     */
+    private static final int[][] DIRECTIONS = directions();
+
+    /**
+     * The seed of the scrambling
+     */
+    private final long seed;
+
+    /**
+     * Constructor to initialize the sampler
+     *
+     * @param seed the seed of the scrambling
+     */
+    SobolSampler(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Calculates the direction numbers of the supported dimensions
+     *
+     * @return the direction numbers, by dimension and bit
+     */
+    private static int[][] directions() {
+        int[][] directions = new int[POLYNOMIALS.length + 1][BITS];
+        for (int k = 0; k < BITS; k++)
+            directions[0][k] = 1 << (BITS - 1 - k);
+
+        for (int d = 1; d <= POLYNOMIALS.length; d++) {
+            int[] polynomial = POLYNOMIALS[d - 1];
+            int degree = polynomial[0], coefficients = polynomial[1];
+            int[] v = directions[d];
+            for (int k = 0; k < degree; k++)
+                v[k] = polynomial[2 + k] << (BITS - 1 - k);
+            for (int k = degree; k < BITS; k++) {
+                v[k] = v[k - degree] ^ (v[k - degree] >>> degree);
+                for (int l = 1; l < degree; l++)
+                    if ((coefficients >>> (degree - 1 - l) & 1) != 0)
+                        v[k] ^= v[k - l];
+            }
+        }
+        return directions;
+    }
+
+    @Override
+    public double get(int x, int y, long index, int dimension) {
+        if (dimension < 0 || dimension >= DIRECTIONS.length)
+            throw new IllegalArgumentException("The Sobol sampler supports " + DIRECTIONS.length + " dimensions");
+
+        int[] v = DIRECTIONS[dimension];
+        int value = (int) Sampler.hash(seed, x, y, dimension);
+        for (int k = 0; index != 0 && k < BITS; k++, index >>>= 1)
+            if ((index & 1) != 0)
+                value ^= v[k];
+        return Integer.toUnsignedLong(value) * 0x1.0p-32;
+    }
+
+    @Override
+    public String toString() {
+        return "sobol " + seed;
+    }
+}
@@ -0,0 +1,213 @@
+package renderer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A checkpoint of a tiled render - a log of the finished tiles and their colors, so a render that was
+ * stopped can be resumed without rendering them again.
+ * <p>
+ * The file starts with a fingerprint of the camera and the scene, and a log of another render is discarded.
+ * Every finished tile appends a record of its index and its linear colors (3 floats per pixel, row after row).
+ * The records are written to the storage device periodically, so a crash loses at most the tiles of the last
+ * period, and a record that was cut by the crash is dropped when the log is read
+ */
+class TileCheckpoint implements Closeable {
+    /**
+     * The path of the log file
+     */
+    private final Path path;
+
+    /**
+     * The tiles of the render, by their index
+     */
+    private final List<TileRenderer.Tile> tiles;
+
+    /**
+     * The offset in the file of the colors of every tile that was finished by a previous render, -1 for the others
+     */
+    private final long[] restored;
+
+    /**
+     * The channel the colors of the restored tiles are read from
+     */
+    private final FileChannel reader;
+
+    /**
+     * The stream the records of the finished tiles are appended to
+     */
+    private final DataOutputStream writer;
+
+    /**
+     * The channel of the appended records, for writing them to the storage device
+     */
+    private final FileChannel writerChannel;
+
+    /**
+     * The minimal time in milliseconds between writes of the log to the storage device
+     */
+    private final long interval;
+
+    /**
+     * The time the log was last written to the storage device
+     */
+    private long lastSync = System.currentTimeMillis();
+
+    /**
+     * Opens the checkpoint of a render, reading the tiles that were finished by a previous render
+     * with the same fingerprint, or starting a new log
+     *
+     * @param path        the path of the log file
+     * @param fingerprint the description of the camera and the scene of the render
+     * @param tiles       the tiles of the render, by their index
+     * @param interval    the minimal time in milliseconds between writes of the log to the storage device
+     * @throws IOException if the log file can't be read or written
+     */
+    TileCheckpoint(Path path, String fingerprint, List<TileRenderer.Tile> tiles, long interval) throws IOException {
+        this.path = path;
+        this.tiles = tiles;
+        this.interval = interval;
+        this.restored = new long[tiles.size()];
+        Arrays.fill(restored, -1);
+
+        long length = Files.exists(path) ? readLog(fingerprint) : 0;
+        if (length == 0) {
+            // a new log - only the fingerprint
+            byte[] header = fingerprint.getBytes(StandardCharsets.UTF_8);
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(path.toFile()))) {
+                out.writeInt(header.length);
+                out.write(header);
+            }
+        } else
+            // drop a record that was cut by a crash
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            }
+
+        this.reader = FileChannel.open(path, StandardOpenOption.READ);
+        FileOutputStream out = new FileOutputStream(path.toFile(), true);
+        this.writerChannel = out.getChannel();
+        this.writer = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    }
+
+    /**
+     * Reads the log of a previous render and finds the records of the tiles it finished
+     *
+     * @param fingerprint the description of the camera and the scene of the render
+     * @return the length of the valid part of the log, 0 if it is a log of another render
+     * @throws IOException if the log file can't be read
+     */
+    private long readLog(String fingerprint) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path.toFile())))) {
+            byte[] header = fingerprint.getBytes(StandardCharsets.UTF_8);
+            long fileLength = Files.size(path);
+            if (fileLength < Integer.BYTES + header.length || in.readInt() != header.length
+                    || !Arrays.equals(in.readNBytes(header.length), header))
+                return 0;
+
+            long length = Integer.BYTES + header.length;
+            while (length + Integer.BYTES <= fileLength) {
+                int index = in.readInt();
+                if (index < 0 || index >= tiles.size())
+                    break;
+                long size = colorsCount(tiles.get(index)) * (long) Float.BYTES;
+                if (length + Integer.BYTES + size > fileLength)
+                    break;
+                restored[index] = length + Integer.BYTES;
+                length += Integer.BYTES + size;
+                in.skipNBytes(size);
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Calculates the amount of color components of a tile
+     *
+     * @param tile the tile
+     * @return 3 components for every pixel of the tile
+     */
+    static int colorsCount(TileRenderer.Tile tile) {
+        return (tile.x1 - tile.x0) * (tile.y1 - tile.y0) * 3;
+    }
+
+    /**
+     * Reads the colors of a tile that was finished by a previous render
+     *
+     * @param tile the tile
+     * @return the linear colors of the tile, 3 floats per pixel row after row, or null if it wasn't finished
+     */
+    float[] getRestored(TileRenderer.Tile tile) {
+        long offset = restored[tile.index];
+        if (offset < 0)
+            return null;
+
+        ByteBuffer buffer = ByteBuffer.allocate(colorsCount(tile) * Float.BYTES);
+        try {
+            while (buffer.hasRemaining())
+                if (reader.read(buffer, offset + buffer.position()) < 0)
+                    throw new EOFException("Checkpoint " + path + " is truncated");
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - reading checkpoint " + path, e);
+        }
+
+        float[] colors = new float[colorsCount(tile)];
+        buffer.flip().asFloatBuffer().get(colors);
+        return colors;
+    }
+
+    /**
+     * Appends the record of a finished tile to the log, and writes the log to the storage device
+     * if the interval passed since the last write
+     *
+     * @param tile   the finished tile
+     * @param colors the linear colors of the tile, 3 floats per pixel row after row
+     */
+    synchronized void complete(TileRenderer.Tile tile, float[] colors) {
+        try {
+            writer.writeInt(tile.index);
+            for (float component : colors)
+                writer.writeFloat(component);
+
+            long now = System.currentTimeMillis();
+            if (now - lastSync >= interval) {
+                writer.flush();
+                writerChannel.force(false);
+                lastSync = now;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - writing checkpoint " + path, e);
+        }
+    }
+
+    /**
+     * Writes the rest of the log and closes it
+     *
+     * @throws IOException if the log file can't be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            writer.close();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Closes the log of a render that was finished and deletes it
+     *
+     * @throws IOException if the log file can't be deleted
+     */
+    void delete() throws IOException {
+        close();
+        Files.delete(path);
+    }
+}
@@ -0,0 +1,276 @@
+package renderer;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * TileRenderer splits an image into square tiles and renders them on a dedicated pool of worker threads.
+ * The tiles are ordered along a Z-order (Morton) curve, so consecutive tiles are neighbours in the image and
+ * a worker that renders a run of tiles keeps touching the same part of the scene.
+ * The pool splits the run of tiles in halves recursively, so an idle worker steals a large block of
+ * neighbouring tiles from a busy one instead of taking single pixels from a shared queue.
+ * An image that is streamed to its file while it is rendered needs its rows in order instead -
+ * the tiles are then ordered row after row, and every worker takes the next tile in that order
+ */
+class TileRenderer {
+
+    /**
+     * A rectangular block of pixels of the image, [x0, x1) x [y0, y1)
+     */
+    static class Tile {
+        /**
+         * The index of the tile in the rows of tiles of the image, the same in every order of the tiles
+         */
+        final int index;
+        /**
+         * The first column of the tile
+         */
+        final int x0;
+        /**
+         * The first row of the tile
+         */
+        final int y0;
+        /**
+         * The column after the last column of the tile
+         */
+        final int x1;
+        /**
+         * The row after the last row of the tile
+         */
+        final int y1;
+
+        /**
+         * Constructor to initialize a tile with its bounds
+         *
+         * @param index the index of the tile in the rows of tiles of the image
+         * @param x0 the first column of the tile
+         * @param y0 the first row of the tile
+         * @param x1 the column after the last column of the tile
+         * @param y1 the row after the last row of the tile
+         */
+        Tile(int index, int x0, int y0, int x1, int y1) {
+            this.index = index;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+        }
+
+        @Override
+        public String toString() {
+            return "Tile{" + x0 + "," + y0 + " - " + x1 + "," + y1 + '}';
+        }
+    }
+
+    /**
+     * The tiles of the image, in Z-order
+     */
+    private final List<Tile> tiles;
+
+    /**
+     * The amount of worker threads
+     */
+    private final int threadsCount;
+
+    /**
+     * Whether the tiles are rendered row after row, from the top of the image down
+     */
+    private final boolean inRows;
+
+    /**
+     * Constructor to initialize the tiles of an image
+     *
+     * @param nX           amount of pixels by width
+     * @param nY           amount of pixels by height
+     * @param tileSize     the width and height of a tile in pixels
+     * @param threadsCount the amount of worker threads, 1 renders on the calling thread
+     * @throws IllegalArgumentException if the tile size or the amount of threads isn't positive
+     */
+    TileRenderer(int nX, int nY, int tileSize, int threadsCount) {
+        this(nX, nY, tileSize, threadsCount, false);
+    }
+
+    /**
+     * Constructor to initialize the tiles of an image, in Z-order or row after row
+     *
+     * @param nX           amount of pixels by width
+     * @param nY           amount of pixels by height
+     * @param tileSize     the width and height of a tile in pixels
+     * @param threadsCount the amount of worker threads, 1 renders on the calling thread
+     * @param inRows       whether the tiles are rendered row after row, from the top of the image down,
+     *                     so the rows of the image are finished (almost) in order
+     * @throws IllegalArgumentException if the tile size or the amount of threads isn't positive
+     */
+    TileRenderer(int nX, int nY, int tileSize, int threadsCount, boolean inRows) {
+        if (tileSize <= 0)
+            throw new IllegalArgumentException("tile size must be > 0");
+        if (threadsCount <= 0)
+            throw new IllegalArgumentException("threads count must be > 0");
+
+        this.threadsCount = threadsCount;
+        this.inRows = inRows;
+
+        int tilesX = (nX + tileSize - 1) / tileSize;
+        int tilesY = (nY + tileSize - 1) / tileSize;
+        long[] codes = new long[tilesX * tilesY];
+        int k = 0;
+        for (int ty = 0; ty < tilesY; ty++)
+            for (int tx = 0; tx < tilesX; tx++)
+                // the Morton code is in the high bits, the position in the row-major order in the low ones
+                codes[k++] = (inRows ? 0 : mortonCode(tx, ty) << 32) | (ty * tilesX + tx);
+        Arrays.sort(codes);
+
+        List<Tile> tiles = new ArrayList<>(codes.length);
+        for (long code : codes) {
+            int index = (int) code;
+            int x0 = (index % tilesX) * tileSize;
+            int y0 = (index / tilesX) * tileSize;
+            tiles.add(new Tile(index, x0, y0, Math.min(x0 + tileSize, nX), Math.min(y0 + tileSize, nY)));
+        }
+        this.tiles = Collections.unmodifiableList(tiles);
+    }
+
+    /**
+     * Interleaves the bits of the tile coordinates into their position on the Z-order curve
+     *
+     * @param tx the column of the tile
+     * @param ty the row of the tile
+     * @return the Morton code of the tile
+     */
+    private static long mortonCode(int tx, int ty) {
+        long code = 0;
+        for (int bit = 0; bit < 16; bit++)
+            code |= ((long) (tx >> bit & 1) << (2 * bit)) | ((long) (ty >> bit & 1) << (2 * bit + 1));
+        return code;
+    }
+
+    /**
+     * Returns the tiles of the image in the order they are handed to the workers.
+     *
+     * @return the tiles in Z-order, or row after row
+     */
+    List<Tile> getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Renders all the tiles and returns when they are all done.
+     * The pool is created for the render and shut down after it, so it never competes with the common pool
+     *
+     * @param action the rendering of a single tile, called once for every tile
+     */
+    void render(Consumer<Tile> action) {
+        if (threadsCount == 1 || tiles.size() <= 1) {
+            for (Tile tile : tiles)
+                action.accept(tile);
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threadsCount);
+        try {
+            if (!inRows)
+                pool.invoke(new TilesTask(action, 0, tiles.size()));
+            else {
+                // every worker takes the next tile, so the tiles in progress are always the next ones in order
+                AtomicInteger next = new AtomicInteger();
+                List<InOrderTask> workers = new ArrayList<>(threadsCount);
+                for (int i = 0; i < threadsCount; i++)
+                    workers.add(new InOrderTask(action, next));
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(workers);
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A task of rendering a run of consecutive tiles, split in halves until a single tile is left
+     */
+    private class TilesTask extends RecursiveAction {
+        /**
+         * The version of the serialized form that RecursiveAction requires, the task is never serialized
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The rendering of a single tile
+         */
+        private final Consumer<Tile> action;
+        /**
+         * The first tile of the run
+         */
+        private final int from;
+        /**
+         * The tile after the last tile of the run
+         */
+        private final int to;
+
+        /**
+         * Constructor to initialize the task of a run of tiles
+         *
+         * @param action the rendering of a single tile
+         * @param from   the first tile of the run
+         * @param to     the tile after the last tile of the run
+         */
+        TilesTask(Consumer<Tile> action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(tiles.get(from));
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new TilesTask(action, from, middle), new TilesTask(action, middle, to));
+        }
+    }
+
+    /**
+     * A task of a worker that renders the next tile in order until all the tiles are taken
+     */
+    private class InOrderTask extends RecursiveAction {
+        /**
+         * The version of the serialized form that RecursiveAction requires, the task is never serialized
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The rendering of a single tile
+         */
+        private final Consumer<Tile> action;
+        /**
+         * The next tile that no worker has taken, shared by all the workers
+         */
+        private final AtomicInteger next;
+
+        /**
+         * Constructor to initialize the task of a worker
+         *
+         * @param action the rendering of a single tile
+         * @param next   the next tile that no worker has taken
+         */
+        InOrderTask(Consumer<Tile> action, AtomicInteger next) {
+            this.action = action;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            for (int k = next.getAndIncrement(); k < tiles.size(); k = next.getAndIncrement())
+                action.accept(tiles.get(k));
+        }
+    }
+}
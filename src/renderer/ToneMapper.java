@@ -0,0 +1,44 @@
+package renderer;
+
+/**
+ * A tone mapper maps the linear (high dynamic range) color components of a rendered image to the displayable
+ * range. The components are in the units of Color - 255 is the full white of a printed image, lights may be brighter.
+ * The result is saturated to 255 when the pixel is packed, so a mapper only has to shape the curve
+ */
+@FunctionalInterface
+public interface ToneMapper {
+
+    /**
+     * Maps a single linear color component to the displayable range
+     *
+     * @param value the linear component, 0 or more
+     * @return the displayable component, from 0 to 255
+     */
+    double map(double value);
+
+    /**
+     * Clamping - every component above the full white is cut to 255, the mapping of a plain image writer
+     */
+    ToneMapper CLAMP = value -> Math.min(value, 255);
+
+    /**
+     * The Reinhard operator x / (1 + x) - bright components are compressed smoothly instead of being cut,
+     * so over-exposed highlights keep their details
+     */
+    ToneMapper REINHARD = value -> {
+        double x = value / 255;
+        return 255 * x / (1 + x);
+    };
+
+    /**
+     * Creates a mapper that changes the exposure of the image before mapping it
+     *
+     * @param stops  the change of the exposure in stops - every stop doubles (or, if negative, halves) the light
+     * @param mapper the mapper of the exposed components
+     * @return the exposing tone mapper
+     */
+    static ToneMapper exposure(double stops, ToneMapper mapper) {
+        double scale = Math.pow(2, stops);
+        return value -> mapper.map(value * scale);
+    }
+}
@@ -1563,6 +1563,7 @@ public class TeapotTest {
                 new Triangle(pnts[529], pnts[530], pnts[470]).setEmission(color).setMaterial(mat) //
         );
         scene.lights.add(new PointLight(new Color(500, 500, 500), new Point(100.0, 0.0, -100.0)).setKq(0.000001));
+        scene.geometries.buildBvh();
 
         camera.setAntiAliasing(true)
                 .setGridSize(4);
@@ -0,0 +1,77 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BoundingBox class
+ */
+class BoundingBoxTest {
+
+    @Test
+    /**
+     * Test method for {@link geometries.BoundingBox#intersects(primitives.Ray)}
+     */
+    void testIntersects() {
+        BoundingBox box = new BoundingBox(0, 0, 0, 1, 1, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the ray passes through the box
+        assertTrue(box.intersects(new Ray(new Point(-1.0, 0.5, 0.5), new Vector(1.0, 0.1, 0.0))), "Ray through the box isn't detected");
+
+        // TC02: the ray misses the box
+        assertFalse(box.intersects(new Ray(new Point(-1.0, 2.0, 0.5), new Vector(1.0, 0.1, 0.0))), "Ray that misses the box is detected");
+
+        // TC03: the box is behind the ray
+        assertFalse(box.intersects(new Ray(new Point(2.0, 0.5, 0.5), new Vector(1.0, 0.0, 0.0))), "Box behind the ray is detected");
+
+        // TC04: the ray starts inside the box
+        assertTrue(box.intersects(new Ray(new Point(0.5, 0.5, 0.5), new Vector(1.0, 1.0, 1.0))), "Ray from inside the box isn't detected");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the ray is parallel to a slab and outside it
+        assertFalse(box.intersects(new Ray(new Point(-1.0, 2.0, 0.5), new Vector(1.0, 0.0, 0.0))), "Parallel ray outside the box is detected");
+
+        // TC12: a flat box (of a triangle on the plane z=0) is hit by a vertical ray
+        BoundingBox flat = new BoundingBox(0, 0, 0, 1, 1, 0);
+        assertTrue(flat.intersects(new Ray(new Point(0.5, 0.5, 1.0), new Vector(0.0, 0.0, -1.0))), "Ray through a flat box isn't detected");
+    }
+
+    @Test
+    /**
+     * Test method for {@link geometries.BoundingBox#union(geometries.BoundingBox)}
+     */
+    void testUnion() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the union encloses both boxes
+        BoundingBox union = new BoundingBox(0, 0, 0, 1, 1, 1).union(new BoundingBox(2, -1, 0, 3, 0, 4));
+        assertEquals(new BoundingBox(0, -1, 0, 3, 1, 4).toString(), union.toString(), "Bad union of boxes");
+        assertEquals(2 * (3 * 2 + 2 * 4 + 4 * 3), union.surfaceArea(), 1e-10, "Bad surface area");
+    }
+
+    @Test
+    /**
+     * Test method for {@link geometries.Intersectable#getBoundingBox()}
+     */
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: bounded geometries are enclosed by their boxes
+        assertEquals(new BoundingBox(0, 1, 2, 2, 3, 4).toString(),
+                new Sphere(new Point(1.0, 2.0, 3.0), 1).getBoundingBox().toString(), "Bad box of sphere");
+        assertEquals(new BoundingBox(0, 0, 0, 1, 1, 0).toString(),
+                new Triangle(new Point(0.0, 0.0, 0.0), new Point(1.0, 0.0, 0.0), new Point(0.0, 1.0, 0.0)).getBoundingBox().toString(),
+                "Bad box of triangle");
+        assertEquals(new BoundingBox(-1, -1, 0, 1, 1, 2).toString(),
+                new Cylinder(new Ray(new Point(0.0, 0.0, 0.0), new Vector(0.0, 0.0, 1.0)), 1, 2).getBoundingBox().toString(),
+                "Bad box of cylinder");
+
+        // TC02: a collection with an unbounded geometry is unbounded
+        Geometries geometries = new Geometries(new Sphere(new Point(0.0, 0.0, 0.0), 1));
+        assertNotNull(geometries.getBoundingBox(), "Collection of bounded geometries has no box");
+        geometries = new Geometries();
+        geometries.add(new Sphere(new Point(0.0, 0.0, 0.0), 1), new Plane(new Point(0.0, 0.0, 0.0), new Vector(0.0, 0.0, 1.0)));
+        assertNull(geometries.getBoundingBox(), "Collection with a plane is bounded");
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import primitives.*;
 import primitives.Util.*;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 /**
  * Unit tests for Cylinder class
@@ -41,10 +43,45 @@ public class CylinderTest {
      * Test method for {@link geometries.Cylinder.FindIntersections(primitives.Ray)}
      */
     void testFindIntersections() {
+        Cylinder cylinder = new Cylinder(new Ray(new Point(0.0, 0.0, 0.0), new Vector(0.0, 0.0, 1.0)), 1d, 2d);
+        List<Point> result;
+
         // ============ Equivalence Partitions Tests ==============
-        // TC01:
+        // TC01: the ray crosses the body twice (2 points)
+        result = cylinder.findIntersections(new Ray(new Point(-2.0, 0.0, 1.0), new Vector(1.0, 0.0, 0.0)));
+        assertEquals(2, result.size(), "Wrong number of points through the body");
+        assertTrue(result.containsAll(List.of(new Point(-1.0, 0.0, 1.0), new Point(1.0, 0.0, 1.0))), "Bad points through the body");
+
+        // TC02: the ray crosses both bases (2 points)
+        result = cylinder.findIntersections(new Ray(new Point(0.5, 0.0, -1.0), new Vector(0.0, 0.0, 1.0)));
+        assertEquals(2, result.size(), "Wrong number of points through the bases");
+        assertTrue(result.containsAll(List.of(new Point(0.5, 0.0, 0.0), new Point(0.5, 0.0, 2.0))), "Bad points through the bases");
+
+        // TC03: the ray crosses the body and the top base (2 points)
+        result = cylinder.findIntersections(new Ray(new Point(-2.0, 0.0, 0.5), new Vector(2.0, 0.0, 2.0)));
+        assertEquals(2, result.size(), "Wrong number of points through the body and a base");
+        assertTrue(result.containsAll(List.of(new Point(-1.0, 0.0, 1.5), new Point(-0.5, 0.0, 2.0))), "Bad points through the body and a base");
+
+        // TC04: the ray misses the cylinder (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(-2.0, 2.0, 1.0), new Vector(1.0, 0.0, 0.0))), "Ray misses the cylinder");
+
+        // TC05: the ray crosses the tube beyond the top base (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(-2.0, 0.0, 3.0), new Vector(1.0, 0.0, 0.0))), "Ray above the cylinder");
 
         // =============== Boundary Values Tests ==================
-        // TC11:
+        // TC11: the ray starts inside the cylinder (1 point)
+        result = cylinder.findIntersections(new Ray(new Point(0.0, 0.0, 1.0), new Vector(1.0, 0.0, 0.0)));
+        assertEquals(List.of(new Point(1.0, 0.0, 1.0)), result, "Bad point from inside the cylinder");
+
+        // TC12: the ray is parallel to the axis, outside the cylinder (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(2.0, 0.0, -1.0), new Vector(0.0, 0.0, 1.0))), "Parallel ray outside the cylinder");
+
+        // TC13: the ray is tangent to the body (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(-2.0, 1.0, 1.0), new Vector(1.0, 0.0, 0.0))), "Tangent ray");
+
+        // TC14: the closest point is the nearer one
+        assertEquals(new Point(-1.0, 0.0, 1.0),
+                cylinder.findClosestGeoIntersection(new Ray(new Point(-2.0, 0.0, 1.0), new Vector(1.0, 0.0, 0.0))).point,
+                "Bad closest point");
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Frustum class
+ */
+class FrustumTest {
+    /**
+     * The frustum of the rays from the origin through the square from (-1,-1,-1) to (1,1,-1)
+     */
+    private final Frustum frustum = new Frustum(Point.ZERO,
+            new Vector(-1.0, 1.0, -1.0), new Vector(1.0, 1.0, -1.0),
+            new Vector(1.0, -1.0, -1.0), new Vector(-1.0, -1.0, -1.0));
+
+    @Test
+    /**
+     * Test method for {@link geometries.Frustum#excludes(geometries.BoundingBox)}
+     */
+    void testExcludes() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a box inside the frustum
+        assertFalse(frustum.excludes(new BoundingBox(-1, -1, -11, 1, 1, -9)), "Box inside excluded");
+
+        // TC02: a box across a side of the frustum
+        assertFalse(frustum.excludes(new BoundingBox(8, -1, -11, 12, 1, -9)), "Box across a side excluded");
+
+        // TC03: a box beside the frustum
+        assertTrue(frustum.excludes(new BoundingBox(12, -1, -11, 14, 1, -9)), "Box beside not excluded");
+
+        // TC04: a box behind the apex
+        assertTrue(frustum.excludes(new BoundingBox(-1, -1, 9, 1, 1, 11)), "Box behind not excluded");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a box that touches a side of the frustum
+        assertFalse(frustum.excludes(new BoundingBox(10, -1, -11, 12, 1, -10)), "Touching box excluded");
+
+        // TC12: a frustum needs four edges
+        assertThrows(IllegalArgumentException.class,
+                () -> new Frustum(Point.ZERO, new Vector(1.0, 1.0, -1.0), new Vector(-1.0, 1.0, -1.0)),
+                "Two edges accepted");
+    }
+
+    @Test
+    /**
+     * Test method for {@link geometries.Frustum#contains(geometries.BoundingBox)}
+     */
+    void testContains() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a box inside the frustum
+        assertTrue(frustum.contains(new BoundingBox(-1, -1, -11, 1, 1, -9)), "Box inside not contained");
+
+        // TC02: a box across a side of the frustum
+        assertFalse(frustum.contains(new BoundingBox(8, -1, -11, 12, 1, -9)), "Box across a side contained");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a box around the apex
+        assertFalse(frustum.contains(new BoundingBox(-1, -1, -1, 1, 1, 1)), "Box around the apex contained");
+    }
+}
@@ -52,4 +52,232 @@ class GeometriesTest {
         intersections = geometries.findIntersections(new Ray(new Point(2.5, 2.0, 0.0), new Vector(-2.5, -2.0, 0.5)));
         assertEquals(4, intersections.size(), "All geometries intersects doesn't working currently");
     }
-}
\ No newline at end of file
+
+    @Test
+    /**
+     * Test method for {@link geometries.Geometries#add(geometries.Intersectable...)}
+     */
+    void testAdd() {
+        Geometries inner = new Geometries();
+        inner.add(new Sphere(new Point(0.0, 0.0, 0.0), 1.0));
+        Geometries outer = new Geometries();
+        outer.add(inner);
+        Geometries root = new Geometries(outer);
+        Ray ray = new Ray(new Point(50.0, 0.0, 10.0), new Vector(0.0, 0.0, -1.0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a geometry added to a nested collection after it was added is found through the collections above it
+        inner.add(new Sphere(new Point(50.0, 0.0, 0.0), 1.0));
+        assertEquals(2, root.findIntersections(ray).size(), "The box of a nested collection didn't grow");
+        assertNotNull(root.findClosestGeoIntersection(ray), "The closest hit missed a nested geometry");
+
+        // TC02: the hierarchy of a collection is dropped when a nested collection changes
+        outer.buildBvh();
+        inner.add(new Sphere(new Point(50.0, 0.0, -5.0), 1.0));
+        assertEquals(4, root.findIntersections(ray).size(), "The hierarchy didn't see a nested geometry");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a nested collection that becomes unbounded makes the collections above it unbounded
+        inner.add(new Plane(new Point(0.0, 0.0, -20.0), new Vector(0.0, 0.0, 1.0)));
+        assertNull(root.getBoundingBox(), "A collection of an unbounded collection is bounded");
+        assertEquals(1, root.findIntersections(new Ray(new Point(500.0, 0.0, 10.0), new Vector(0.0, 0.0, -1.0)))
+                .size(), "The unbounded geometry of a nested collection wasn't found");
+    }
+
+    @Test
+    /**
+     * Test method for {@link geometries.Geometries#buildBvh()}
+     */
+    void testBuildBvh() {
+        // a grid of 20x20 small triangles on the plane z=0, and a plane z=5 above them
+        Geometries flat = new Geometries();
+        Geometries bvh = new Geometries();
+        for (int i = 0; i < 20; i++)
+            for (int j = 0; j < 20; j++) {
+                Triangle triangle = new Triangle(
+                        new Point((double) i, (double) j, 0.0),
+                        new Point(i + 1.0, (double) j, 0.0),
+                        new Point((double) i, j + 1.0, 0.0));
+                flat.add(triangle);
+                bvh.add(triangle);
+            }
+        Plane plane = new Plane(new Point(0.0, 0.0, 5.0), new Vector(0.0, 0.0, 1.0));
+        flat.add(plane);
+        bvh.add(plane);
+        bvh.buildBvh();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hierarchy finds the same intersections as testing every geometry
+        Point p0 = new Point(-3.0, -2.0, 10.0);
+        for (int i = 0; i < 20; i++)
+            for (int j = 0; j < 20; j++) {
+                Ray ray = new Ray(p0, new Point(i + 0.3, j + 0.3, 0.0).subtract(p0));
+                List<Point> expected = flat.findIntersections(ray);
+                List<Point> result = bvh.findIntersections(ray);
+                assertEquals(expected.size(), result.size(), "BVH found a different number of intersections");
+                assertTrue(result.containsAll(expected), "BVH found different intersections");
+            }
+
+        // TC02: a ray that misses all the triangles still hits the unbounded plane
+        assertEquals(1, bvh.findIntersections(new Ray(p0, new Vector(-1.0, 0.0, -1.0))).size(),
+                "BVH doesn't test the unbounded geometries");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a ray that misses everything
+        assertNull(bvh.findIntersections(new Ray(p0, new Vector(-1.0, 0.0, 0.0))), "BVH found intersections for a missing ray");
+    }
+
+    @Test
+    /**
+     * Test method for {@link geometries.Geometries#findTransparency(primitives.Ray, double)}
+     */
+    void testFindTransparency() {
+        Geometries geometries = new Geometries();
+        geometries.add(
+                new Sphere(new Point(0.0, 0.0, 2.0), 0.5).setMaterial(new Material().setKt(new Double3(0.5))),
+                new Sphere(new Point(0.0, 0.0, 4.0), 0.5).setMaterial(new Material().setKt(new Double3(0.5))),
+                new Sphere(new Point(0.0, 0.0, 6.0), 0.5));
+        Ray ray = new Ray(new Point(0.0, 0.0, 0.0), new Vector(0.0, 0.0, 1.0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the light is before the first sphere
+        assertEquals(Double3.ONE, geometries.findTransparency(ray, 1), "Geometries behind the light block it");
+
+        // TC02: the light is beyond a transparent sphere (crossed twice)
+        assertEquals(new Double3(0.25), geometries.findTransparency(ray, 3), "Bad transparency of a transparent sphere");
+
+        // TC03: the light is beyond two transparent spheres
+        assertEquals(new Double3(0.0625), geometries.findTransparency(ray, 5), "Bad transparency of two transparent spheres");
+
+        // TC04: the light is beyond an opaque sphere
+        assertEquals(Double3.ZERO, geometries.findTransparency(ray, 7), "An opaque sphere doesn't block the light");
+
+        // TC05: the ray misses all the spheres
+        assertEquals(Double3.ONE, geometries.findTransparency(new Ray(new Point(0.0, 0.0, 0.0), new Vector(1.0, 0.0, 0.0)), 10),
+                "Geometries out of the ray block the light");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the same results with the bounding volume hierarchy
+        geometries.buildBvh();
+        assertEquals(new Double3(0.0625), geometries.findTransparency(ray, 5), "Bad transparency with BVH");
+        assertEquals(Double3.ZERO, geometries.findTransparency(ray, 7), "An opaque sphere doesn't block the light with BVH");
+
+        // TC12: the light is just before and just beyond the surface of the opaque sphere
+        assertEquals(new Double3(0.0625), geometries.findTransparency(ray, 5.4), "A sphere beyond the light blocks it");
+        assertEquals(Double3.ZERO, geometries.findTransparency(ray, 5.6), "A sphere before the light doesn't block it");
+
+        // TC13: every kind of opaque geometry blocks the light beyond it, and not the light before it
+        Intersectable[] opaque = {
+                new Plane(new Point(0.0, 0.0, 2.0), new Vector(0.0, 0.0, 1.0)),
+                new Triangle(new Point(-1.0, -1.0, 2.0), new Point(1.0, -1.0, 2.0), new Point(0.0, 1.0, 2.0)),
+                new Polygon(new Point(-1.0, -1.0, 2.0), new Point(1.0, -1.0, 2.0), new Point(1.0, 1.0, 2.0),
+                        new Point(-1.0, 1.0, 2.0)),
+                new Cylinder(new Ray(new Point(-0.5, 0.0, 2.5), new Vector(1.0, 0.0, 0.0)), 0.5, 1),
+                new Tube(new Ray(new Point(0.0, 0.0, 2.5), new Vector(1.0, 0.0, 0.0)), 0.5)};
+        for (Intersectable geometry : opaque) {
+            assertEquals(Double3.ONE, geometry.findTransparency(ray, 1.9), geometry + " blocks the light before it");
+            assertEquals(Double3.ZERO, geometry.findTransparency(ray, 2.1), geometry + " doesn't block the light beyond it");
+        }
+    }
+
+    @Test
+    /**
+     * Test method for {@link geometries.Geometries#findClosestGeoIntersection(primitives.Ray)}
+     */
+    void testFindClosestGeoIntersection() {
+        Sphere near = new Sphere(new Point(0.0, 0.0, 2.0), 0.5);
+        Sphere far = new Sphere(new Point(0.0, 0.0, 4.0), 0.5);
+        Plane plane = new Plane(new Point(0.0, 0.0, 6.0), new Vector(0.0, 0.0, 1.0));
+        Geometries geometries = new Geometries();
+        geometries.add(plane, far, near);
+        Ray ray = new Ray(new Point(0.0, 0.0, 0.0), new Vector(0.0, 0.0, 1.0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the closest point is on the near sphere, although it was added last
+        assertEquals(new Intersectable.GeoPoint(near, new Point(0.0, 0.0, 1.5)), geometries.findClosestGeoIntersection(ray),
+                "Bad closest intersection");
+
+        // TC02: the ray misses everything
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(0.0, 0.0, 0.0), new Vector(0.0, 0.0, -1.0))),
+                "Closest intersection for a missing ray");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: only the points before the maximal distance are considered
+        assertNull(geometries.findClosestGeoIntersection(ray, 1.5), "Closest intersection beyond the maximal distance");
+
+        // TC12: the same result with the bounding volume hierarchy
+        geometries.buildBvh();
+        assertEquals(new Intersectable.GeoPoint(near, new Point(0.0, 0.0, 1.5)), geometries.findClosestGeoIntersection(ray),
+                "Bad closest intersection with BVH");
+    }
+
+    @Test
+    /**
+     * Test method for {@link geometries.Intersectable#findClosestHit(primitives.Ray, geometries.Intersectable.Hit)}
+     */
+    void testFindClosestHit() {
+        Sphere near = new Sphere(new Point(0.0, 0.0, 2.0), 0.5);
+        Triangle far = new Triangle(new Point(-1.0, -1.0, 4.0), new Point(1.0, -1.0, 4.0), new Point(0.0, 1.0, 4.0));
+        Geometries geometries = new Geometries(far, near);
+        Ray ray = new Ray(new Point(0.0, 0.0, 0.0), new Vector(0.0, 0.0, 1.0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hit is shrunk to the near sphere
+        Intersectable.Hit hit = new Intersectable.Hit(Double.POSITIVE_INFINITY);
+        assertTrue(geometries.findClosestHit(ray, hit), "Closest hit not found");
+        assertEquals(near, hit.geometry, "Bad closest hit geometry");
+        assertEquals(1.5, hit.t, 1e-10, "Bad closest hit distance");
+
+        // TC02: a hit that is already closer is not updated
+        hit = new Intersectable.Hit(1);
+        assertFalse(geometries.findClosestHit(ray, hit), "Farther hit replaced a closer one");
+        assertNull(hit.geometry, "Farther hit replaced a closer one");
+        assertEquals(1, hit.t, 1e-10, "Hit distance changed");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the hit limited between the sphere and the triangle finds the triangle only when searched alone
+        hit = new Intersectable.Hit(5);
+        assertTrue(far.findClosestHit(ray, hit), "Triangle hit not found");
+        assertEquals(4, hit.t, 1e-10, "Bad triangle hit distance");
+    }
+
+    @Test
+    /**
+     * Test method for {@link geometries.Geometries#cull(geometries.Frustum)}
+     */
+    void testCull() {
+        // a row of 20 spheres along the x axis, and a plane behind them
+        Geometries geometries = new Geometries();
+        for (int k = 0; k < 20; k++)
+            geometries.add(new Sphere(new Point(k * 3.0 - 30, 0.0, -10.0), 1.0));
+        geometries.add(new Plane(new Point(0.0, 0.0, -20.0), new Vector(0.0, 0.0, 1.0)));
+        // the rays through the square from (-1,-1,-10) to (1,1,-10)
+        Frustum frustum = new Frustum(Point.ZERO,
+                new Vector(-1.0, 1.0, -10.0), new Vector(1.0, 1.0, -10.0),
+                new Vector(1.0, -1.0, -10.0), new Vector(-1.0, -1.0, -10.0));
+        Ray ray = new Ray(Point.ZERO, new Vector(0.05, 0.0, -1.0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the spheres out of the frustum are culled, the plane is kept
+        Geometries visible = geometries.cull(frustum);
+        assertEquals(20, geometries.countBounded(), "Bad amount of bounded geometries");
+        assertEquals(1, visible.countBounded(), "Bad amount of visible geometries");
+        assertEquals(geometries.findClosestGeoIntersection(ray), visible.findClosestGeoIntersection(ray),
+                "Culled geometries don't intersect as the whole");
+
+        // TC02: the same with a bounding volume hierarchy
+        geometries.buildBvh();
+        visible = geometries.cull(frustum);
+        assertEquals(20, geometries.countBounded(), "Bad amount of bounded geometries in the hierarchy");
+        assertTrue(visible.countBounded() < 20, "Nothing was culled from the hierarchy");
+        assertEquals(geometries.findClosestGeoIntersection(ray), visible.findClosestGeoIntersection(ray),
+                "Culled hierarchy doesn't intersect as the whole");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a frustum that sees nothing keeps only the plane
+        Frustum away = new Frustum(Point.ZERO,
+                new Vector(-1.0, 1.0, 10.0), new Vector(1.0, 1.0, 10.0),
+                new Vector(1.0, -1.0, 10.0), new Vector(-1.0, -1.0, 10.0));
+        assertEquals(0, geometries.cull(away).countBounded(), "Geometries behind the camera weren't culled");
+    }
+}
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import primitives.*;
 import primitives.Util.*;
 
+import java.util.List;
+
 /**
  * Testing Polygons
  *
@@ -78,10 +80,42 @@ public class PolygonTests {
      * Test method for {@link geometries.Polygon.FindIntersections(primitives.Ray)}
      */
     void testFindIntersections() {
+        Polygon square = new Polygon(new Point(0.0, 0.0, 1.0), new Point(2.0, 0.0, 1.0), new Point(2.0, 2.0, 1.0), new Point(0.0, 2.0, 1.0));
+        List<Point> result;
+
         // ============ Equivalence Partitions Tests ==============
-        // TC01:
+        // TC01: the ray intersects inside the polygon (1 point)
+        result = square.findIntersections(new Ray(new Point(0.5, 0.5, 0.0), new Vector(0.5, 0.5, 1.0)));
+        assertEquals(1, result.size(), "Wrong number of points");
+        assertEquals(new Point(1.0, 1.0, 1.0), result.get(0), "Wrong intersection point");
+
+        // TC02: the ray is outside against an edge (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(3.0, 1.0, 0.0), new Vector(0.0, 0.0, 1.0))),
+                "Ray outside against edge");
+
+        // TC03: the ray is outside against a vertex (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(3.0, 3.0, 0.0), new Vector(0.0, 0.0, 1.0))),
+                "Ray outside against vertex");
+
+        // TC04: the polygon is behind the ray (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(1.0, 1.0, 2.0), new Vector(0.0, 0.0, 1.0))),
+                "Polygon behind the ray");
 
         // =============== Boundary Values Tests ==================
-        // TC11:
+        // TC11: the ray intersects on an edge (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(2.0, 1.0, 0.0), new Vector(0.0, 0.0, 1.0))),
+                "Ray on edge");
+
+        // TC12: the ray intersects on a vertex (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(2.0, 2.0, 0.0), new Vector(0.0, 0.0, 1.0))),
+                "Ray on vertex");
+
+        // TC13: the ray intersects on an edge's continuation (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(3.0, 0.0, 0.0), new Vector(0.0, 0.0, 1.0))),
+                "Ray on edge's continuation");
+
+        // TC14: the ray is parallel to the polygon (0 points)
+        assertNull(square.findIntersections(new Ray(new Point(1.0, 1.0, 0.0), new Vector(1.0, 0.0, 0.0))),
+                "Ray parallel to the polygon");
     }
 }
@@ -0,0 +1,64 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for VectorMath class
+ */
+public class VectorMathTest {
+
+    final Point p1 = new Point(1.0, 2.0, 3.0);
+    final Vector v1 = new Vector(1.0, 2.0, 3.0);
+    final Vector v2 = new Vector(-2.0, -4.0, -6.0);
+    final Vector v3 = new Vector(0.0, 3.0, -2.0);
+
+    /**
+     * Test method for {@link primitives.VectorMath#dot(double, double, double, double, double, double)}.
+     */
+    @Test
+    void testDot() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Test the dot product agrees with the dot product of the vectors
+        assertEquals(v1.dotProduct(v2), VectorMath.dot(1, 2, 3, -2, -4, -6), 0.00001,
+                "dot() wrong value");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Test the dot product of orthogonal vectors is zero
+        assertEquals(0, VectorMath.dot(1, 2, 3, 0, 3, -2), 0.00001, "dot() for orthogonal vectors is not zero");
+    }
+
+    /**
+     * Test method for {@link primitives.VectorMath#subDot(Point, Point, Vector)}.
+     */
+    @Test
+    void testSubDot() {
+        Point p2 = new Point(2.0, 4.0, 0.0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Test the difference of the points is multiplied by the vector
+        assertEquals(p2.subtract(p1).dotProduct(v3), VectorMath.subDot(p2, p1, v3), 0.00001,
+                "subDot() wrong value");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Test the difference of the same point gives zero
+        assertEquals(0, VectorMath.subDot(p1, p1, v3), 0.00001, "subDot() of the same point is not zero");
+    }
+
+    /**
+     * Test method for {@link primitives.VectorMath#addScaledDot(Vector, Vector, double, Vector)}.
+     */
+    @Test
+    void testAddScaledDot() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Test the scaled sum of the vectors is multiplied by the vector
+        assertEquals(v1.add(v3.scale(2)).dotProduct(v2), VectorMath.addScaledDot(v1, v3, 2, v2), 0.00001,
+                "addScaledDot() wrong value");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: Test a scaled sum that cancels to the zero vector gives zero
+        assertEquals(0, VectorMath.addScaledDot(v1, v2, 0.5, v3), 0.00001,
+                "addScaledDot() of a cancelled sum is not zero");
+    }
+}
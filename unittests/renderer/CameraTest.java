@@ -5,7 +5,24 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
 import renderer.Camera;
+import geometries.Plane;
+import geometries.Polygon;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
 import primitives.*;
+import scene.Scene;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Testing Camera Class
@@ -14,6 +31,35 @@ import primitives.*;
 class CameraTest {
     static final Point ZERO_POINT = new Point(0.0, 0.0, 0.0);
 
+    /**
+     * The emission of the sphere of {@link #sphereScene(String)}
+     */
+    static final Color SPHERE_COLOR = new Color(100, 50, 20);
+
+    /**
+     * Creates the scene of the rendering tests - a sphere of radius 30 in the middle of the view of
+     * {@link #camera()}, with an emission of {@link #SPHERE_COLOR}, on a black background
+     *
+     * @param name the name of the scene
+     * @return the scene
+     */
+    private static Scene sphereScene(String name) {
+        Scene scene = new Scene(name);
+        scene.geometries.add(new Sphere(new Point(0.0, 0.0, -100.0), 30).setEmission(SPHERE_COLOR));
+        return scene;
+    }
+
+    /**
+     * Creates the camera of the rendering tests - at the origin, looking towards -z through a 100 x 100 view plane
+     * at a distance of 100
+     *
+     * @return the camera
+     */
+    private static Camera camera() {
+        return new Camera(ZERO_POINT, new Vector(0.0, 0.0, -1.0), new Vector(0.0, 1.0, 0.0))
+                .setVPDistance(100).setVPSize(100, 100);
+    }
+
     /**
      * Test method for
      * {@link renderer.Camera#constructRay(int, int, int, int)}.
@@ -55,4 +101,481 @@ class CameraTest {
                 camera.setVPSize(8, 8).constructRay(4, 4, 1, 0), badRay);
 
     }
+
+    /**
+     * A ray tracer that counts the traced rays, and stops the render (by an exception) after a limit
+     */
+    static class CountingRayTracer extends RayTracerBasic {
+        final AtomicInteger count = new AtomicInteger();
+        final int limit;
+
+        CountingRayTracer(Scene scene, int limit) {
+            super(scene);
+            this.limit = limit;
+        }
+
+        @Override
+        public Color traceRay(Ray ray) {
+            if (count.incrementAndGet() > limit)
+                throw new IllegalStateException("The render was stopped");
+            return super.traceRay(ray);
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#setCheckpoint(String, long)}.
+     */
+    @Test
+    void testCheckpoint() {
+        Scene scene = new Scene("checkpoint").setAmbientLight(new AmbientLight(new Color(255, 255, 255), new Double3(1)));
+        Sphere sphere = new Sphere(new Point(0.0, 0.0, -100.0), 30);
+        scene.geometries.add(sphere.setEmission(SPHERE_COLOR));
+        scene.lights.add(new PointLight(new Color(100, 100, 100), new Point(0.0, 50.0, 0.0)));
+        Camera camera = camera().setTileSize(8);
+
+        ImageWriter reference = new ImageWriter("checkpointReference", 32, 32);
+        camera.setImageWriter(reference).setRayTracer(new RayTracerBasic(scene)).renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a render that is stopped after 5 of the 16 tiles is resumed without rendering them again
+        camera.setCheckpoint("testCheckpoint", 0).setImageWriter(new ImageWriter("checkpointStopped", 32, 32));
+        assertThrows(IllegalStateException.class,
+                () -> camera.setRayTracer(new CountingRayTracer(scene, 5 * 64 + 10)).renderImage(), "Render wasn't stopped");
+
+        ImageWriter resumed = new ImageWriter("checkpointResumed", 32, 32);
+        CountingRayTracer rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        camera.setImageWriter(resumed).setRayTracer(rayTracer).renderImage();
+        assertEquals(11 * 64, rayTracer.count.get(), "Finished tiles were rendered again");
+        for (int i = 0; i < 32; i++)
+            for (int j = 0; j < 32; j++)
+                assertEquals(reference.getPixel(j, i), resumed.getPixel(j, i), "Bad resumed pixel " + j + "," + i);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the checkpoint of a finished render is deleted
+        rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        camera.setImageWriter(new ImageWriter("checkpointAgain", 32, 32)).setRayTracer(rayTracer).renderImage();
+        assertEquals(16 * 64, rayTracer.count.get(), "A finished render was resumed");
+
+        // TC12: a checkpoint of another camera isn't resumed
+        camera.setImageWriter(new ImageWriter("checkpointStopped", 32, 32));
+        assertThrows(IllegalStateException.class,
+                () -> camera.setRayTracer(new CountingRayTracer(scene, 5 * 64 + 10)).renderImage(), "Render wasn't stopped");
+        rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        camera.setVPDistance(50).setImageWriter(new ImageWriter("checkpointOther", 32, 32)).setRayTracer(rayTracer).renderImage();
+        assertEquals(16 * 64, rayTracer.count.get(), "A checkpoint of another camera was resumed");
+
+        // TC13: a checkpoint of the scene before its content changed (under the same name) isn't resumed
+        camera.setImageWriter(new ImageWriter("checkpointStopped", 32, 32));
+        assertThrows(IllegalStateException.class,
+                () -> camera.setRayTracer(new CountingRayTracer(scene, 5 * 64 + 10)).renderImage(), "Render wasn't stopped");
+        sphere.setMaterial(new Material().setKd(new Double3(0.5)));
+        rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        camera.setImageWriter(new ImageWriter("checkpointChanged", 32, 32)).setRayTracer(rayTracer).renderImage();
+        assertEquals(16 * 64, rayTracer.count.get(), "A checkpoint of a changed scene was resumed");
+
+        // TC14: the same for a light that was moved
+        camera.setImageWriter(new ImageWriter("checkpointStopped", 32, 32));
+        assertThrows(IllegalStateException.class,
+                () -> camera.setRayTracer(new CountingRayTracer(scene, 5 * 64 + 10)).renderImage(), "Render wasn't stopped");
+        scene.lights.set(0, new PointLight(new Color(100, 100, 100), new Point(0.0, 60.0, 0.0)));
+        rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        camera.setImageWriter(new ImageWriter("checkpointMoved", 32, 32)).setRayTracer(rayTracer).renderImage();
+        assertEquals(16 * 64, rayTracer.count.get(), "A checkpoint of a scene with a moved light was resumed");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#renderImageProgressive()}.
+     */
+    @Test
+    void testRenderImageProgressive() {
+        Scene scene = sphereScene("progressive");
+        CountingRayTracer rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter imageWriter = new ImageWriter("progressive", 32, 32);
+        AtomicInteger passes = new AtomicInteger();
+        Camera camera = camera().setImageWriter(imageWriter).setRayTracer(rayTracer)
+                .setProgressive(32, 1).setPassListener(pass -> passes.set(pass));
+        camera.renderImageProgressive();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the flat areas converge after the minimal samples, the edge of the sphere keeps sampling
+        assertTrue(passes.get() > 4, "The edge of the sphere converged too early");
+        assertTrue(rayTracer.count.get() < 32 * 32 * 8, "The flat areas didn't converge");
+        assertEquals(SPHERE_COLOR.getRGB(), imageWriter.getPixel(16, 16), "Bad color of the sphere");
+        assertEquals(java.awt.Color.BLACK.getRGB(), imageWriter.getPixel(0, 0), "Bad color of the background");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a single pass takes a single sample in every pixel
+        rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        camera.setRayTracer(rayTracer).setProgressive(1, 1).renderImageProgressive();
+        assertEquals(32 * 32, rayTracer.count.get(), "Bad amount of samples of a single pass");
+        assertEquals(1, passes.get(), "Bad amount of passes");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#setTimeBudget(long)}.
+     */
+    @Test
+    void testSetTimeBudget() {
+        Scene scene = sphereScene("budget");
+        CountingRayTracer rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter imageWriter = new ImageWriter("budget", 32, 32);
+        AtomicInteger passes = new AtomicInteger();
+        Camera camera = camera().setImageWriter(imageWriter).setRayTracer(rayTracer)
+                .setProgressive(Integer.MAX_VALUE, 0).setPassListener(pass -> passes.set(pass));
+
+        // a clock that only moves by 100 ms after every pass
+        AtomicLong now = new AtomicLong();
+        camera.setClock(now::get).setPassListener(pass -> {
+            passes.set(pass);
+            now.addAndGet(100_000_000);
+        });
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the render keeps refining until the deadline and stops there
+        camera.setTimeBudget(300).renderImageProgressive();
+        assertEquals(3, passes.get(), "The render didn't stop at the deadline");
+
+        // TC02: the system clock - the render doesn't stop before the deadline
+        long start = System.nanoTime();
+        camera.setClock(System::nanoTime).setPassListener(pass -> passes.set(pass)).setTimeBudget(50)
+                .renderImageProgressive();
+        assertTrue(System.nanoTime() - start >= 50_000_000, "The render stopped before the deadline");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a budget shorter than a pass still completes the image, and doesn't refine it
+        rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        camera.setRayTracer(rayTracer).setClock(now::get).setPassListener(pass -> {
+            passes.set(pass);
+            now.addAndGet(100_000_000);
+        }).setTimeBudget(1).renderImageProgressive();
+        assertEquals(1, passes.get(), "The image was refined after the deadline");
+        assertEquals(32 * 32, rayTracer.count.get(), "The image isn't complete");
+        assertEquals(SPHERE_COLOR.getRGB(), imageWriter.getPixel(16, 16), "Bad color of the sphere");
+
+        // TC12: the deadline in the middle of a pass - the tiles after it aren't refined
+        rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        AtomicLong ticks = new AtomicLong();
+        camera.setRayTracer(rayTracer).setClock(() -> ticks.getAndIncrement() * 1_000_000).setPassListener(null)
+                .setTileSize(8).setTimeBudget(8).renderImageProgressive();
+        // a clock that moves by 1 ms whenever it is read - the deadline is set at 0 ms and the first pass ends at 1 ms,
+        // so the tiles of the second pass that read 2 to 7 ms are refined, and the 10 tiles after them aren't
+        assertEquals(32 * 32 + 6 * 64, rayTracer.count.get(), "The tiles after the deadline were refined");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Camera#setAntiAliasing(boolean)}
+     */
+    void testSetAntiAliasing() {
+        Scene scene = sphereScene("antiAliasing");
+        CountingRayTracer rayTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter imageWriter = new ImageWriter("antiAliasing", 32, 32);
+        Camera camera = camera().setTileSize(32).setImageWriter(imageWriter)
+                .setRayTracer(rayTracer).setAntiAliasing(true).setGridSize(4);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the corners are shared by the pixels, and only the pixels on the edge of the sphere are super sampled
+        camera.renderImage();
+        assertTrue(rayTracer.count.get() < 3 * 32 * 32, "The corners of the pixels aren't shared");
+        assertEquals(SPHERE_COLOR.getRGB(), imageWriter.getPixel(16, 16), "Bad color inside the sphere");
+        assertEquals(Color.BLACK.getRGB(), imageWriter.getPixel(0, 0), "Bad color of the background");
+        int edge = imageWriter.getPixel(16, 5);
+        assertTrue(edge != Color.BLACK.getRGB() && edge != SPHERE_COLOR.getRGB(),
+                "The edge of the sphere isn't smoothed");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a flat image needs only the corners of the pixels - once per tile
+        rayTracer = new CountingRayTracer(new Scene("flat"), Integer.MAX_VALUE);
+        camera.setTileSize(16).setRayTracer(rayTracer).renderImage();
+        assertEquals(4 * 17 * 17, rayTracer.count.get(), "Bad amount of rays of a flat image");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Camera#setAdaptiveSupersampling(int, double)}
+     */
+    void testSetAdaptiveSupersampling() {
+        Scene scene = sphereScene("adaptive");
+        CountingRayTracer gridTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter grid = new ImageWriter("adaptiveGrid", 32, 32);
+        Camera camera = camera().setAntiAliasing(true).setGridSize(16);
+        camera.setImageWriter(grid).setRayTracer(gridTracer).renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the same resolution on the edges of the sphere takes a fraction of the rays of the uniform grid
+        CountingRayTracer adaptiveTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter adaptive = new ImageWriter("adaptive", 32, 32);
+        camera.setAdaptiveSupersampling(4, 1).setImageWriter(adaptive).setRayTracer(adaptiveTracer).renderImage();
+        assertTrue(adaptiveTracer.count.get() * 3 < gridTracer.count.get(), "Too many rays of adaptive super sampling");
+        for (int i = 0; i < 32; i++)
+            for (int j = 0; j < 32; j++)
+                for (int shift = 0; shift <= 16; shift += 8)
+                    assertEquals(grid.getPixel(j, i) >> shift & 255, adaptive.getPixel(j, i) >> shift & 255, 8,
+                            "Bad adaptive pixel " + j + "," + i);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a flat image takes only the corners of the pixels
+        adaptiveTracer = new CountingRayTracer(new Scene("flat"), Integer.MAX_VALUE);
+        camera.setTileSize(32).setRayTracer(adaptiveTracer).renderImage();
+        assertEquals(33 * 33, adaptiveTracer.count.get(), "Bad amount of rays of a flat image");
+
+        // TC12: a bad depth
+        assertThrows(IllegalArgumentException.class, () -> camera.setAdaptiveSupersampling(-1, 1), "Negative depth accepted");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Camera#setAdaptiveAperture(int, double)}
+     */
+    void testSetAdaptiveAperture() {
+        Scene scene = sphereScene("aperture");
+        CountingRayTracer fullTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter full = new ImageWriter("apertureFull", 32, 32);
+        Camera camera = camera().setDepthOfFiled(true).setFPDistance(70).setApertureSize(2);
+        camera.setImageWriter(full).setRayTracer(fullTracer).renderImage();
+        assertEquals(32 * 32 * 100, fullTracer.count.get(), "Bad amount of rays of the full aperture");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: only the pixels on the blurred edges of the sphere are sampled by all the points of the aperture
+        CountingRayTracer adaptiveTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter adaptive = new ImageWriter("apertureAdaptive", 32, 32);
+        camera.setAdaptiveAperture(100, 1).setImageWriter(adaptive).setRayTracer(adaptiveTracer).renderImage();
+        assertTrue(adaptiveTracer.count.get() * 4 < fullTracer.count.get(), "Too many rays of the adaptive aperture");
+        for (int i = 0; i < 32; i++)
+            for (int j = 0; j < 32; j++)
+                for (int shift = 0; shift <= 16; shift += 8)
+                    assertEquals(full.getPixel(j, i) >> shift & 255, adaptive.getPixel(j, i) >> shift & 255, 8,
+                            "Bad adaptive aperture pixel " + j + "," + i);
+
+        // TC02: the aperture is sampled by the pixels of the image, and every sample of a pixel (its corner and
+        // the points of its grid, with anti-aliasing) takes its own indices of the sampler
+        Set<List<Long>> keys = new HashSet<>();
+        AtomicInteger lensSamples = new AtomicInteger();
+        Sampler halton = Sampler.halton(0);
+        camera.setSampler((x, y, index, dimension) -> {
+            if (dimension == 2) {
+                assertTrue(x >= 0 && x <= 32 && y >= 0 && y <= 32, "The sampler was keyed by a point out of the image");
+                lensSamples.incrementAndGet();
+                keys.add(List.of((long) x, (long) y, index));
+            }
+            return halton.get(x, y, index, dimension);
+        }).setAntiAliasing(true).setGridSize(2).setTileSize(32).setImageWriter(new ImageWriter("apertureKeys", 32, 32))
+                .setRayTracer(new RayTracerBasic(scene)).renderImage();
+        assertTrue(lensSamples.get() > 0, "The aperture wasn't sampled");
+        assertEquals(lensSamples.get(), keys.size(), "Two samples of a pixel took the same indices of the sampler");
+        camera.setSampler(halton).setAntiAliasing(false);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a flat image takes only the probes
+        adaptiveTracer = new CountingRayTracer(new Scene("flat"), Integer.MAX_VALUE);
+        camera.setRayTracer(adaptiveTracer).renderImage();
+        assertEquals(32 * 32 * 5, adaptiveTracer.count.get(), "Bad amount of rays of a flat image");
+
+        // TC12: too few samples
+        assertThrows(IllegalArgumentException.class, () -> camera.setAdaptiveAperture(3, 1), "Too few samples accepted");
+
+        // TC13: no samples turn the adaptive sampling off, and the grid of the full aperture wasn't changed by the
+        // adaptive sampling of another amount of points
+        camera.setAdaptiveAperture(16, 1).setAdaptiveAperture(0, 1);
+        CountingRayTracer offTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter off = new ImageWriter("apertureOff", 32, 32);
+        camera.setImageWriter(off).setRayTracer(offTracer).renderImage();
+        assertEquals(32 * 32 * 100, offTracer.count.get(), "Bad amount of rays of the turned off adaptive aperture");
+        for (int i = 0; i < 32; i++)
+            for (int j = 0; j < 32; j++)
+                assertEquals(full.getPixel(j, i), off.getPixel(j, i), "Bad turned off adaptive aperture pixel " + j + "," + i);
+
+        // TC14: a pixel whose probes differ is sampled by the center probe and the adaptive grid, without more rays
+        CountingRayTracer refinedTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        camera.setAdaptiveAperture(16, 0).setImageWriter(new ImageWriter("apertureRefined", 32, 32))
+                .setRayTracer(refinedTracer).renderImage();
+        assertTrue(refinedTracer.count.get() > 32 * 32 * 5, "No pixel was refined");
+        assertEquals(0, (refinedTracer.count.get() - 32 * 32 * 5) % 12, "Bad amount of rays of the refined pixels");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Camera#setJointSampling(int)}
+     */
+    void testSetJointSampling() {
+        Scene scene = sphereScene("joint");
+        CountingRayTracer fullTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter full = new ImageWriter("jointFull", 16, 16);
+        Camera camera = camera().setAntiAliasing(true).setGridSize(3)
+                .setDepthOfFiled(true).setFPDistance(70).setApertureSize(2);
+        camera.setImageWriter(full).setRayTracer(fullTracer).renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a fixed amount of joint samples per pixel, a fraction of the rays of the whole aperture per point
+        CountingRayTracer jointTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        ImageWriter joint = new ImageWriter("joint", 16, 16);
+        camera.setJointSampling(64).setImageWriter(joint).setRayTracer(jointTracer).renderImage();
+        assertEquals(16 * 16 * 64, jointTracer.count.get(), "Bad amount of joint samples");
+        assertTrue(jointTracer.count.get() * 4 < fullTracer.count.get(), "Too many joint samples");
+        double error = 0;
+        for (int i = 0; i < 16; i++)
+            for (int j = 0; j < 16; j++)
+                for (int shift = 0; shift <= 16; shift += 8)
+                    error += Math.abs((full.getPixel(j, i) >> shift & 255) - (joint.getPixel(j, i) >> shift & 255));
+        assertTrue(error / (16 * 16 * 3) < 2, "Joint samples are too far from the whole aperture");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the amount of samples needn't be a square
+        jointTracer = new CountingRayTracer(scene, Integer.MAX_VALUE);
+        camera.setJointSampling(10).setRayTracer(jointTracer).renderImage();
+        assertEquals(16 * 16 * 10, jointTracer.count.get(), "Bad amount of joint samples");
+
+        // TC12: negative samples
+        assertThrows(IllegalArgumentException.class, () -> camera.setJointSampling(-1), "Negative samples accepted");
+    }
+
+    /**
+     * Reads the bytes of a pfm image the tests wrote
+     *
+     * @param name the name of the image
+     * @return the bytes of the image file
+     * @throws IOException if the file can't be read
+     */
+    private static byte[] readPfm(String name) throws IOException {
+        return Files.readAllBytes(Path.of(System.getProperty("user.dir"), "images", name + ".pfm"));
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Camera#renderImageThreaded()}
+     */
+    void testRenderImageThreaded() throws IOException {
+        Scene scene = sphereScene("deterministic");
+        Camera camera = camera().setRayTracer(new RayTracerBasic(scene))
+                .setAntiAliasing(true).setDepthOfFiled(true).setFPDistance(70).setApertureSize(2).setJointSampling(16);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the stochastic samples of a render are the same for any amount of threads and size of tiles
+        ImageWriter single = new ImageWriter("deterministicSingle", 24, 24);
+        camera.setImageWriter(single).renderImage();
+        single.writeToPfm();
+        ImageWriter threaded = new ImageWriter("deterministicThreaded", 24, 24);
+        camera.setMultithreading(3).setTileSize(5).setImageWriter(threaded).renderImageThreaded();
+        threaded.writeToPfm();
+        assertArrayEquals(readPfm("deterministicSingle"), readPfm("deterministicThreaded"),
+                "The image depends on the threads");
+
+        // TC02: the progressive passes are the same for any amount of threads and size of tiles
+        ImageWriter progressive = new ImageWriter("deterministicProgressive", 24, 24);
+        camera.setMultithreading(1).setTileSize(16).setProgressive(8, 0).setImageWriter(progressive)
+                .renderImageProgressive();
+        progressive.writeToPfm();
+        ImageWriter progressiveThreaded = new ImageWriter("deterministicProgressiveThreaded", 24, 24);
+        camera.setMultithreading(4).setTileSize(3).setImageWriter(progressiveThreaded).renderImageProgressive();
+        progressiveThreaded.writeToPfm();
+        assertArrayEquals(readPfm("deterministicProgressive"), readPfm("deterministicProgressiveThreaded"),
+                "The progressive image depends on the threads");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: another seed is another image
+        ImageWriter seeded = new ImageWriter("deterministicSeeded", 24, 24);
+        camera.setSampler(Sampler.halton(1)).setImageWriter(seeded).renderImage();
+        seeded.writeToPfm();
+        assertFalse(Arrays.equals(readPfm("deterministicSingle"), readPfm("deterministicSeeded")),
+                "The seed doesn't change the image");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Camera#setFrustumCulling(boolean)}
+     */
+    void testSetFrustumCulling() throws IOException {
+        // a grid of 8 x 8 small spheres that fills the view
+        Scene scene = new Scene("culling").setAmbientLight(new AmbientLight(new Color(255, 255, 255), new Double3(0.2)));
+        for (int x = 0; x < 8; x++)
+            for (int y = 0; y < 8; y++)
+                scene.geometries.add(new Sphere(new Point(x * 12.0 - 42, y * 12.0 - 42, -100.0), 5)
+                        .setEmission(new Color(10 * x, 10 * y, 50)));
+        Camera camera = camera().setRayTracer(new RayTracerBasic(scene)).setTileSize(8);
+        ImageWriter whole = new ImageWriter("cullingWhole", 32, 32);
+        camera.setImageWriter(whole).renderImage();
+        whole.writeToPfm();
+        assertEquals(0, camera.getCullRate(), "A render without culling has a cull rate");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every tile sees a few of the spheres, and the image is the same
+        ImageWriter culled = new ImageWriter("cullingCulled", 32, 32);
+        camera.setFrustumCulling(true).setImageWriter(culled).renderImage();
+        culled.writeToPfm();
+        assertArrayEquals(readPfm("cullingWhole"), readPfm("cullingCulled"), "Culling changed the image");
+        assertTrue(camera.getCullRate() > 0.8, "Too few geometries were culled");
+        assertEquals(Math.round(camera.getCullRate() * 16 * 64), camera.getCulledCount(), "Bad amount of culled geometries");
+
+        // TC02: the same with a bounding volume hierarchy and anti-aliasing, which samples the edges of the tiles
+        scene.geometries.buildBvh();
+        ImageWriter wholeAliased = new ImageWriter("cullingWholeAntiAliased", 32, 32);
+        camera.setFrustumCulling(false).setAntiAliasing(true).setImageWriter(wholeAliased).renderImage();
+        wholeAliased.writeToPfm();
+        ImageWriter culledAliased = new ImageWriter("cullingCulledAntiAliased", 32, 32);
+        camera.setFrustumCulling(true).setImageWriter(culledAliased).renderImage();
+        culledAliased.writeToPfm();
+        assertArrayEquals(readPfm("cullingWholeAntiAliased"), readPfm("cullingCulledAntiAliased"),
+                "Culling changed the anti-aliased image");
+        assertTrue(camera.getCullRate() > 0.5, "Too few geometries were culled from the hierarchy");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: tiles aren't culled with depth of field
+        camera.setAntiAliasing(false).setDepthOfFiled(true).setFPDistance(100).setApertureSize(1)
+                .setImageWriter(new ImageWriter("cullingDepthOfField", 32, 32)).renderImage();
+        assertEquals(0, camera.getCullRate(), "Tiles were culled with depth of field");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Camera#setHybridRasterization(boolean)}.
+     */
+    void testSetHybridRasterization() throws IOException {
+        // spheres, triangles and a polygon that overlap each other, over a plane that can't be rasterized
+        Scene scene = new Scene("hybrid").setAmbientLight(new AmbientLight(new Color(255, 255, 255), new Double3(0.1)));
+        Material material = new Material().setKd(new Double3(0.5)).setKs(new Double3(0.3)).setShininess(20);
+        scene.geometries.add(
+                new Plane(new Point(0.0, -30.0, 0.0), new Vector(0.0, 1.0, 0.0))
+                        .setEmission(new Color(20, 20, 20)).setMaterial(material),
+                new Sphere(new Point(-15.0, 0.0, -120.0), 15).setEmission(new Color(100, 20, 20)).setMaterial(material),
+                new Sphere(new Point(10.0, 5.0, -140.0), 20).setEmission(new Color(20, 100, 20))
+                        .setMaterial(new Material().setKd(new Double3(0.3)).setKr(new Double3(0.5))),
+                new Triangle(new Point(-40.0, -20.0, -110.0), new Point(40.0, -25.0, -150.0), new Point(0.0, 30.0, -130.0))
+                        .setEmission(new Color(20, 20, 100)).setMaterial(material),
+                new Triangle(new Point(30.0, 30.0, -100.0), new Point(45.0, -10.0, -100.0), new Point(15.0, 0.0, -90.0))
+                        .setEmission(new Color(100, 100, 20)).setMaterial(material),
+                new Polygon(new Point(-45.0, 20.0, -100.0), new Point(-25.0, 20.0, -100.0),
+                        new Point(-25.0, 45.0, -105.0), new Point(-45.0, 45.0, -105.0))
+                        .setEmission(new Color(20, 100, 100)).setMaterial(material));
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(50.0, 60.0, -20.0)));
+        Camera camera = camera().setRayTracer(new RayTracerBasic(scene));
+        ImageWriter traced = new ImageWriter("hybridTraced", 64, 64);
+        camera.setImageWriter(traced).renderImage();
+        traced.writeToPfm();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the rasterized primary visibility gives the same image as the traced one
+        ImageWriter rasterized = new ImageWriter("hybridRasterized", 64, 64);
+        camera.setHybridRasterization(true).setImageWriter(rasterized).renderImage();
+        rasterized.writeToPfm();
+        assertArrayEquals(readPfm("hybridTraced"), readPfm("hybridRasterized"), "Rasterization changed the image");
+
+        // TC02: the same with a bounding volume hierarchy, on several threads
+        scene.geometries.buildBvh();
+        ImageWriter threaded = new ImageWriter("hybridThreaded", 64, 64);
+        camera.setImageWriter(threaded).setMultithreading(2).renderImageThreaded();
+        threaded.writeToPfm();
+        assertArrayEquals(readPfm("hybridTraced"), readPfm("hybridThreaded"),
+                "Rasterization changed the image of the hierarchy");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: anti-aliasing isn't rasterized, and renders as without rasterization
+        ImageWriter aliased = new ImageWriter("hybridAntiAliased", 64, 64);
+        camera.setHybridRasterization(false).setAntiAliasing(true).setImageWriter(aliased).renderImage();
+        aliased.writeToPfm();
+        ImageWriter hybridAliased = new ImageWriter("hybridRasterizedAntiAliased", 64, 64);
+        camera.setHybridRasterization(true).setImageWriter(hybridAliased).renderImage();
+        hybridAliased.writeToPfm();
+        assertArrayEquals(readPfm("hybridAntiAliased"), readPfm("hybridRasterizedAntiAliased"),
+                "Rasterization changed the anti-aliased image");
+    }
 }
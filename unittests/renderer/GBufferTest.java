@@ -0,0 +1,99 @@
+package renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.*;
+import primitives.*;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Testing GBuffer Class
+ */
+class GBufferTest {
+    static final Point ZERO_POINT = new Point(0.0, 0.0, 0.0);
+
+    /**
+     * The camera whose primary visibility is rasterized
+     */
+    private final Camera camera = new Camera(ZERO_POINT, new Vector(0.0, 0.0, -1.0), new Vector(0.0, 1.0, 0.0))
+            .setVPDistance(100).setVPSize(100, 100);
+
+    /**
+     * Creates an empty buffer of the camera
+     *
+     * @param n the amount of columns and rows of the image
+     * @return the buffer
+     */
+    private static GBuffer buffer(int n) {
+        return new GBuffer(ZERO_POINT, new Vector(0.0, 0.0, -1.0), new Vector(0.0, 1.0, 0.0),
+                new Vector(1.0, 0.0, 0.0), 100, 100, 100, n, n);
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.GBuffer#rasterize(geometries.Intersectable, java.util.List)}.
+     */
+    void testRasterize() {
+        Sphere sphere = new Sphere(new Point(-15.0, 0.0, -120.0), 15);
+        Triangle triangle = new Triangle(new Point(-40.0, -20.0, -110.0), new Point(40.0, -25.0, -150.0),
+                new Point(0.0, 30.0, -130.0));
+        Polygon polygon = new Polygon(new Point(-45.0, 20.0, -100.0), new Point(-25.0, 20.0, -100.0),
+                new Point(-25.0, 45.0, -105.0), new Point(-45.0, 45.0, -105.0));
+        Plane plane = new Plane(new Point(0.0, -30.0, 0.0), new Vector(0.0, 1.0, 0.0));
+        Geometries geometries = new Geometries(sphere, new Geometries(triangle, polygon), plane);
+        GBuffer buffer = buffer(32);
+        List<Intersectable> traced = new ArrayList<>();
+        buffer.rasterize(geometries, traced);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a pixel gets the geometry its ray hits first, out of the nested collections too
+        Geometries bounded = new Geometries(sphere, triangle, polygon);
+        for (int i = 0; i < 32; i++)
+            for (int j = 0; j < 32; j++) {
+                Intersectable.GeoPoint hit = bounded.findClosestGeoIntersection(camera.constructRay(32, 32, j, i));
+                Geometry geometry = buffer.getGeometry(j, i);
+                if (hit == null || geometry == hit.geometry)
+                    continue;
+                // only on an edge, where the ray misses the geometry of the buffer
+                assertNotNull(geometry, "Pixel " + j + "," + i + " lost its geometry");
+                assertNull(geometry.findClosestGeoIntersection(camera.constructRay(32, 32, j, i)),
+                        "Bad geometry of pixel " + j + "," + i);
+            }
+
+        // TC02: the unbounded plane is left to be traced
+        assertEquals(List.of(plane), traced, "Bad traced geometries");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a polygon that reaches the plane of the camera is left to be traced
+        traced.clear();
+        Triangle crossing = new Triangle(new Point(-10.0, 0.0, 10.0), new Point(10.0, 0.0, -10.0),
+                new Point(0.0, 10.0, -10.0));
+        buffer.rasterize(crossing, traced);
+        assertEquals(List.of(crossing), traced, "A polygon through the camera plane was rasterized");
+
+        // TC12: a sphere that a pixel's ray just grazes covers the pixel
+        Random random = new Random(1);
+        for (int trial = 0; trial < 20000; trial++) {
+            int j = random.nextInt(33), i = random.nextInt(33);
+            Ray ray = camera.constructRay(33, 33, j, i);
+            double radius = 1 + random.nextDouble() * 20;
+            Vector side = ray.getDir().crossProduct(new Vector(random.nextDouble() - 0.5,
+                    random.nextDouble() - 0.5, random.nextDouble() - 0.5)).normalize();
+            double graze = Math.pow(10, -6 - random.nextDouble() * 10);
+            Sphere grazed = new Sphere(ray.getPoint(50 + random.nextDouble() * 200).add(side.scale(radius - graze)),
+                    radius);
+            if (grazed.findClosestGeoIntersection(ray) == null)
+                continue;
+
+            GBuffer grazeBuffer = buffer(33);
+            grazeBuffer.rasterize(grazed, new ArrayList<>());
+            assertSame(grazed, grazeBuffer.getGeometry(j, i), "A grazed sphere didn't cover pixel " + j + "," + i);
+        }
+    }
+}
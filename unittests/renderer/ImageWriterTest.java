@@ -36,5 +36,151 @@ class ImageWriterTest {
      * Test method for {@link renderer.ImageWriter#writePixel(int, int, Color)}
      */
     void testWritePixel() {
+        ImageWriter imageWriter = new ImageWriter("pixel", 4, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the pixel keeps the packed color of java.awt
+        Color color = new Color(10, 100, 200);
+        imageWriter.writePixel(3, 1, color);
+        assertEquals(color.getColor().getRGB(), imageWriter.getPixel(3, 1), "Bad pixel color");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: components above 255 are saturated
+        imageWriter.writePixel(0, 2, new Color(300, 0, 1000));
+        assertEquals(new java.awt.Color(255, 0, 255).getRGB(), imageWriter.getPixel(0, 2), "Bad saturated pixel color");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.ImageWriter#setToneMapper(renderer.ToneMapper)}
+     */
+    void testSetToneMapper() {
+        ImageWriter imageWriter = new ImageWriter("toneMapper", 2, 1);
+        imageWriter.writePixel(0, 0, new Color(510, 255, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Reinhard compresses the highlights instead of cutting them
+        imageWriter.setToneMapper(ToneMapper.REINHARD);
+        assertEquals(new java.awt.Color(170, 127, 0).getRGB(), imageWriter.getPixel(0, 0), "Bad Reinhard tone mapping");
+
+        // TC02: one stop down halves the light before the clamping
+        imageWriter.setToneMapper(ToneMapper.exposure(-1, ToneMapper.CLAMP));
+        assertEquals(new java.awt.Color(255, 127, 0).getRGB(), imageWriter.getPixel(0, 0), "Bad exposure");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.ImageWriter#writeToPfm()}
+     */
+    void testWriteToPfm() {
+        ImageWriter imageWriter = new ImageWriter("hdr", 3, 2);
+        imageWriter.writePixel(0, 0, new Color(1000, 0.5, 20));
+        imageWriter.writePixel(2, 1, new Color(7, 255, 300));
+        imageWriter.writeToPfm();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the colors above the full white survive the float file
+        ImageWriter read = ImageWriter.readPfm("hdr");
+        assertEquals(3, read.getNx(), "Bad width of read image");
+        assertEquals(2, read.getNy(), "Bad height of read image");
+        read.setToneMapper(ToneMapper.exposure(-2, ToneMapper.CLAMP));
+        assertEquals(new java.awt.Color(250, 0, 5).getRGB(), read.getPixel(0, 0), "Bad color of read image");
+        assertEquals(new java.awt.Color(1, 63, 75).getRGB(), read.getPixel(2, 1), "Bad color of read image");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.ImageWriter#ImageWriter(String, int, int, int)}
+     */
+    void testStreaming() throws java.io.IOException {
+        int nX = 37, nY = 23;
+        ImageWriter whole = new ImageWriter("whole", nX, nY);
+        ImageWriter streamed = new ImageWriter("streamed", nX, nY, 4);
+        assertTrue(streamed.isStreaming(), "Streaming image writer isn't streaming");
+
+        // some columns are written before the image, so their pixels are written twice
+        for (int j = 0; j < nY; j++)
+            for (int i = 0; i < nX; i += 5)
+                streamed.writePixel(i, j, Color.BLACK);
+
+        // the bands are finished out of order - the bottom half first
+        for (int half = 1; half >= 0; half--)
+            for (int j = 0; j < nY; j++)
+                for (int i = 0; i < nX; i++)
+                    if ((j >= nY / 2 ? 1 : 0) == half) {
+                        Color color = new Color(i * 7, j * 11, (i * j) % 300);
+                        whole.writePixel(i, j, color);
+                        streamed.writePixel(i, j, color);
+                    }
+        streamed.writeToImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the streamed file holds the same pixels as the image
+        java.awt.image.BufferedImage image = javax.imageio.ImageIO.read(
+                new java.io.File(System.getProperty("user.dir") + "/images/streamed.png"));
+        assertEquals(nX, image.getWidth(), "Bad width of streamed image");
+        assertEquals(nY, image.getHeight(), "Bad height of streamed image");
+        for (int j = 0; j < nY; j++)
+            for (int i = 0; i < nX; i++)
+                assertEquals(whole.getPixel(i, j), image.getRGB(i, j), "Bad pixel " + i + "," + j + " of streamed image");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a flushed row can't be written again
+        assertThrows(IllegalStateException.class, () -> streamed.writePixel(0, 0, Color.BLACK), "Flushed row written");
+
+        // TC12: an image with missing pixels can't be finished, and its unfinished file is deleted
+        java.io.File partialFile = new java.io.File(System.getProperty("user.dir") + "/images/partial.png");
+        ImageWriter partial = new ImageWriter("partial", 2, 2, 1);
+        partial.writePixel(0, 0, Color.BLACK);
+        partial.writePixel(1, 0, Color.BLACK);
+        assertTrue(partialFile.exists(), "Finished band wasn't flushed");
+        assertThrows(IllegalStateException.class, partial::writeToImage, "Image with missing pixels finished");
+        assertFalse(partialFile.exists(), "Unfinished image wasn't deleted");
+
+        // TC13: a discarded image is deleted, and isn't written by later pixels
+        ImageWriter discarded = new ImageWriter("partial", 2, 2, 1);
+        discarded.writePixel(0, 0, Color.BLACK);
+        discarded.writePixel(1, 0, Color.BLACK);
+        discarded.discardStream();
+        assertFalse(partialFile.exists(), "Discarded image wasn't deleted");
+        discarded.writePixel(0, 1, Color.BLACK);
+        discarded.writePixel(1, 1, Color.BLACK);
+        assertFalse(partialFile.exists(), "Discarded image was written");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.ImageWriter#mapped(String, int, int)}
+     */
+    void testMapped() throws java.io.IOException {
+        int nX = 19, nY = 11;
+        ImageWriter whole = new ImageWriter("whole", nX, nY);
+        ImageWriter mapped = ImageWriter.mapped("mapped", nX, nY);
+        for (int j = 0; j < nY; j++)
+            for (int i = 0; i < nX; i++) {
+                Color color = new Color(i * 13, j * 23, 400 - i * j);
+                whole.writePixel(i, j, color);
+                mapped.writePixel(i, j, color);
+            }
+        mapped.writeToImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the png file of the mapped image holds the same pixels as the image
+        java.awt.image.BufferedImage image = javax.imageio.ImageIO.read(
+                new java.io.File(System.getProperty("user.dir") + "/images/mapped.png"));
+        for (int j = 0; j < nY; j++)
+            for (int i = 0; i < nX; i++)
+                assertEquals(whole.getPixel(i, j), image.getRGB(i, j), "Bad pixel " + i + "," + j + " of mapped image");
+
+        // TC02: the pixels are kept in the raw file, for a separate pass
+        ImageWriter reopened = ImageWriter.openMapped("mapped");
+        assertEquals(nX, reopened.getNx(), "Bad width of reopened image");
+        assertEquals(nY, reopened.getNy(), "Bad height of reopened image");
+        assertEquals(whole.getPixel(7, 5), reopened.getPixel(7, 5), "Bad pixel of reopened image");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: mapping an image of the same size keeps the pixels, of another size clears them
+        assertEquals(whole.getPixel(18, 10), ImageWriter.mapped("mapped", nX, nY).getPixel(18, 10), "Pixels of mapped image lost");
+        assertEquals(java.awt.Color.BLACK.getRGB(), ImageWriter.mapped("mapped", nY, nX).getPixel(10, 10), "Pixels of other image kept");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Sampler interface
+ */
+class SamplerTest {
+
+    /**
+     * Checks that the first samples of a pixel cover every cell of a grid exactly once in two dimensions
+     *
+     * @param sampler the sampler
+     * @param columns the amount of cells of the grid in the first dimension
+     * @param rows    the amount of cells of the grid in the second dimension
+     * @param first   the first dimension
+     * @param second  the second dimension
+     */
+    private static void assertStratified(Sampler sampler, int columns, int rows, int first, int second) {
+        boolean[] covered = new boolean[columns * rows];
+        for (int index = 0; index < columns * rows; index++) {
+            double u = sampler.get(3, 7, index, first), v = sampler.get(3, 7, index, second);
+            assertTrue(u >= 0 && u < 1 && v >= 0 && v < 1, "Sample out of range");
+            int cell = (int) (v * rows) * columns + (int) (u * columns);
+            assertFalse(covered[cell], "Two samples in the same cell of " + sampler);
+            covered[cell] = true;
+        }
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Sampler#halton(long)}
+     */
+    void testHalton() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the first 2 x 3 samples cover a 2 x 3 grid (the bases of the first dimensions)
+        assertStratified(Sampler.halton(1), 2, 3, 0, 1);
+        assertStratified(Sampler.halton(1), 4, 9, 0, 1);
+
+        // TC02: the radical inverse mirrors the digits
+        assertEquals(0.5 + 0.25 / 2, HaltonSampler.radicalInverse(2, 5, 0), 1e-15, "Bad radical inverse");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: an unsupported dimension
+        assertThrows(IllegalArgumentException.class, () -> Sampler.halton(1).get(0, 0, 0, 16), "Bad dimension accepted");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Sampler#sobol(long)}
+     */
+    void testSobol() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every 2^m first samples cover every grid of 2^m cells in the first two dimensions
+        assertStratified(Sampler.sobol(1), 4, 4, 0, 1);
+        assertStratified(Sampler.sobol(1), 16, 1, 0, 1);
+        assertStratified(Sampler.sobol(1), 2, 8, 0, 1);
+        assertStratified(Sampler.sobol(1), 8, 8, 0, 1);
+
+        // TC02: every dimension is stratified by itself
+        for (int dimension = 0; dimension < 8; dimension++)
+            assertStratified(Sampler.sobol(1), 32, 1, dimension, dimension);
+
+        // =============== Boundary Values Tests ==================
+        // TC11: an unsupported dimension
+        assertThrows(IllegalArgumentException.class, () -> Sampler.sobol(1).get(0, 0, 0, 8), "Bad dimension accepted");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.Sampler#get(int, int, long, int)}
+     */
+    void testGet() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a sample is a function of the seed, the pixel, the index and the dimension
+        for (Sampler sampler : new Sampler[]{Sampler.random(5), Sampler.halton(5), Sampler.sobol(5)}) {
+            assertEquals(sampler.get(1, 2, 3, 1), sampler.get(1, 2, 3, 1), "Samples aren't repeatable");
+            assertNotEquals(sampler.get(1, 2, 3, 1), sampler.get(2, 1, 3, 1), "Pixels share samples");
+        }
+        assertEquals(Sampler.random(5).get(1, 2, 3, 1), Sampler.random(5).get(1, 2, 3, 1), "Seeds aren't repeatable");
+        assertNotEquals(Sampler.random(5).get(1, 2, 3, 1), Sampler.random(6).get(1, 2, 3, 1), "Seeds share samples");
+    }
+}
@@ -0,0 +1,65 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TileRenderer class
+ */
+class TileRendererTest {
+
+    @Test
+    /**
+     * Test method for {@link renderer.TileRenderer#render(java.util.function.Consumer)}
+     */
+    void testRender() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every pixel of the image is rendered exactly once by the worker threads
+        int nX = 100, nY = 70;
+        AtomicIntegerArray counts = new AtomicIntegerArray(nX * nY);
+        new TileRenderer(nX, nY, 16, 4).render(tile -> {
+            for (int i = tile.y0; i < tile.y1; i++)
+                for (int j = tile.x0; j < tile.x1; j++)
+                    counts.incrementAndGet(i * nX + j);
+        });
+        for (int k = 0; k < nX * nY; k++)
+            assertEquals(1, counts.get(k), "Pixel " + k % nX + "," + k / nX + " isn't rendered exactly once");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: a tile larger than the image
+        assertEquals(1, new TileRenderer(10, 5, 16, 4).getTiles().size(), "Bad amount of tiles");
+
+        // TC12: zero threads
+        assertThrows(IllegalArgumentException.class, () -> new TileRenderer(10, 10, 4, 0), "Zero threads accepted");
+    }
+
+    @Test
+    /**
+     * Test method for {@link renderer.TileRenderer#getTiles()}
+     */
+    void testGetTiles() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the tiles follow the Z-order - the 4 tiles of the top left quarter come first
+        var tiles = new TileRenderer(64, 64, 16, 1).getTiles();
+        assertEquals(16, tiles.size(), "Bad amount of tiles");
+        int[][] expected = {{0, 0}, {16, 0}, {0, 16}, {16, 16}, {32, 0}};
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k][0], tiles.get(k).x0, "Bad order of tiles");
+            assertEquals(expected[k][1], tiles.get(k).y0, "Bad order of tiles");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the last tiles are clipped to the image
+        var clipped = new TileRenderer(20, 20, 16, 1).getTiles();
+        assertEquals(20, clipped.get(3).x1, "Tile isn't clipped to the image");
+        assertEquals(20, clipped.get(3).y1, "Tile isn't clipped to the image");
+
+        // TC12: the tiles of a streamed image are in rows
+        var rows = new TileRenderer(64, 64, 16, 4, true).getTiles();
+        assertEquals(48, rows.get(3).x0, "Bad order of tiles in rows");
+        assertEquals(16, rows.get(4).y0, "Bad order of tiles in rows");
+    }
+}